@@ -30,6 +30,9 @@ import de.tum.bgu.msm.events.impls.person.*;
 import de.tum.bgu.msm.events.impls.realEstate.ConstructionEvent;
 import de.tum.bgu.msm.events.impls.realEstate.DemolitionEvent;
 import de.tum.bgu.msm.events.impls.realEstate.RenovationEvent;
+import de.tum.bgu.msm.models.relocation.AbstractDefaultMovesModel;
+import de.tum.bgu.msm.models.relocation.BatchedRelocation;
+import de.tum.bgu.msm.models.transportModel.LaggedTransportModelRunner;
 import de.tum.bgu.msm.models.transportModel.matsim.MatsimTransportModel;
 import de.tum.bgu.msm.properties.Properties;
 import de.tum.bgu.msm.properties.modules.TransportModelPropertiesModule;
@@ -61,6 +64,8 @@ public final class SiloModel {
 	private SiloDataContainer data;
 	private final Config matsimConfig;
     private MicroSimulation microSim;
+    private BatchedRelocation batchedRelocation;
+    private LaggedTransportModelRunner laggedTransportModel;
     private final TimeTracker timeTracker = new TimeTracker();
 
     public SiloModel(Properties properties) {
@@ -107,7 +112,6 @@ public final class SiloModel {
 
     private void setupContainer() {
         data = SiloDataContainer.loadSiloDataContainer(properties);
-		IssueCounter.regionSpecificCounters(data.getGeoData());
 		data.getHouseholdData().calculateInitialSettings();
 		data.getJobData().calculateEmploymentForecast();
 		data.getJobData().identifyVacantJobs();
@@ -116,6 +120,9 @@ public final class SiloModel {
 		data.getRealEstateData().setHighestVariablesAndCalculateRentShareByIncome();
 		data.getRealEstateData().identifyVacantDwellings();
         modelContainer = SiloModelContainer.createSiloModelContainer(data, matsimConfig, properties);
+        if (properties.transportModel.transportModelLagged && properties.transportModel.transportModelIdentifier != NONE) {
+            laggedTransportModel = new LaggedTransportModelRunner(modelContainer.getTransportModel());
+        }
     }
 
     private void setupTravelTimes() {
@@ -185,7 +192,16 @@ public final class SiloModel {
             }
 		}
         if(properties.eventRules.allHhMoves) {
-            microSim.registerModel(MoveEvent.class, modelContainer.getMove());
+            if (properties.eventRules.batchedRelocation && modelContainer.getMove() instanceof AbstractDefaultMovesModel) {
+                batchedRelocation = new BatchedRelocation(data, (AbstractDefaultMovesModel) modelContainer.getMove());
+                logger.info("Relocations are simulated in a batched phase before all other events.");
+            } else {
+                if (properties.eventRules.batchedRelocation) {
+                    logger.warn("Batched relocation is not supported by " + modelContainer.getMove().getClass().getSimpleName()
+                            + ", simulating move events instead.");
+                }
+                microSim.registerModel(MoveEvent.class, modelContainer.getMove());
+            }
             if(properties.eventRules.outMigration || properties.eventRules.inmigration) {
                 microSim.registerModel(MigrationEvent.class, modelContainer.getIomig());
             }
@@ -222,8 +238,8 @@ public final class SiloModel {
 
             if (year != properties.main.implementation.BASE_YEAR) {
 				modelContainer.getUpdateJobs().updateJobInventoryMultiThreadedThisYear(year);
-				data.getJobData().identifyVacantJobs();
 			}
+			data.getJobData().resetCommuteProbabilities();
 			timeTracker.recordAndReset("setupJobChange");
 
 
@@ -244,6 +260,12 @@ public final class SiloModel {
                 SiloUtil.summarizeMicroData(year, modelContainer, data);
             }
 
+            if (batchedRelocation != null) {
+                timeTracker.reset();
+                microSim.countSuccessfulEvents(MoveEvent.class, batchedRelocation.relocateHouseholds());
+                timeTracker.record("batchedRelocation");
+            }
+
             microSim.simulate(year);
 
 			timeTracker.reset();
@@ -259,14 +281,22 @@ public final class SiloModel {
 				timeTracker.recordAndReset("switchToAV");
 			}
 
+			// the pending run may still read the travel times that are updated in place by the skim update
+			if (laggedTransportModel != null && laggedTransportModel.applyPendingRun()) {
+				timeTracker.recordAndReset("waitForTransportModel");
+			}
+
 			if (skimYears.contains(year) && year != properties.main.startYear) {
 				updateSkims(year);
 				timeTracker.recordAndReset("Skim update");
 			}
-
 			if ( properties.transportModel.transportModelIdentifier != NONE && tdmYears.contains(year + 1)) {
-                    modelContainer.getTransportModel().runTransportModel(year + 1);
-					timeTracker.recordAndReset("transportModel");
+				if (laggedTransportModel != null) {
+					laggedTransportModel.startRun(year + 1);
+				} else {
+					modelContainer.getTransportModel().runTransportModel(year + 1);
+				}
+				timeTracker.recordAndReset("transportModel");
             }
 
 			modelContainer.getAcc().calculateHansenAccessibilities(year+1);
@@ -290,6 +320,10 @@ public final class SiloModel {
 	}
 
 	private void endSimulation() {
+		if (laggedTransportModel != null) {
+			laggedTransportModel.applyPendingRun();
+			laggedTransportModel.shutdown();
+		}
 		if (scalingYears.contains(properties.main.endYear)) {
             SummarizeData.scaleMicroDataToExogenousForecast(properties.main.endYear, data);
         }
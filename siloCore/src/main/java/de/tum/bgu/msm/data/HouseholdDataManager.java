@@ -16,6 +16,7 @@
  */
 package de.tum.bgu.msm.data;
 
+import de.tum.bgu.msm.utils.DenseIdMap;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.container.SiloModelContainer;
@@ -55,8 +56,8 @@ public class HouseholdDataManager {
     public static int[] quitJobPersonIds;
     private static float[] medianIncome;
 
-    private final Map<Integer, Person> persons = new HashMap<>();
-    private final Map<Integer, Household> households = new HashMap<>();
+    private final DenseIdMap<Person> persons = new DenseIdMap<>();
+    private final DenseIdMap<Household> households = new DenseIdMap<>();
 
     private Map<Integer, int[]> updatedHouseholds = new HashMap<>();
     private HashMap<Integer, int[]> conventionalCarsHouseholds = new HashMap<>();
@@ -20,14 +20,15 @@ package de.tum.bgu.msm.data;
 import com.google.common.collect.ConcurrentHashMultiset;
 import com.google.common.collect.Multiset;
 import com.pb.common.datafile.TableDataSet;
+import de.tum.bgu.msm.utils.DenseIdMap;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.job.Job;
+import de.tum.bgu.msm.data.job.JobMarketIndex;
 import de.tum.bgu.msm.data.job.JobType;
 import de.tum.bgu.msm.data.jobTypes.munich.MunichJobType;
 import de.tum.bgu.msm.data.person.Occupation;
 import de.tum.bgu.msm.data.person.Person;
-import de.tum.bgu.msm.events.IssueCounter;
 import de.tum.bgu.msm.properties.Properties;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.TransportMode;
@@ -47,13 +48,14 @@ public class JobDataManager {
     static Logger logger = Logger.getLogger(JobDataManager.class);
 
     private final GeoData geoData;
-    private final Map<Integer, Job> jobs = new ConcurrentHashMap<>();
+    // jobs are added and removed by parallel tasks in UpdateJobs, therefore all modifications synchronize on this map.
+    // Lookups by id do not need to, see DenseIdMap. Iterating over jobs is not allowed while UpdateJobs runs
+    private final DenseIdMap<Job> jobs = new DenseIdMap<>();
     private final SiloDataContainer data;
 
     private int highestJobIdInUse;
-    private int[][] vacantJobsByRegion;
-    private int[] vacantJobsByRegionPos;
-    private int numberOfStoredVacantJobs;
+    private JobMarketIndex jobMarket;
+    private double[][][] commuteProbabilitiesByHomeZone;
     private final Map<Integer, Double> zonalJobDensity;
 
     private final Map<Integer, Map<Integer,Map<String,Float>>> jobsByYearByZoneByIndustry = new ConcurrentHashMap<>();
@@ -70,7 +72,9 @@ public class JobDataManager {
     }
 
     public void saveJobs(Job[] jjs) {
-        for (Job jj : jjs) jobs.put(jj.getId(), jj);
+        synchronized (jobs) {
+            for (Job jj : jjs) jobs.put(jj.getId(), jj);
+        }
     }
 
     public int getJobCount() {
@@ -86,27 +90,44 @@ public class JobDataManager {
     }
 
     public void removeJob(int id) {
-        jobs.remove(id);
+        synchronized (jobs) {
+            jobs.remove(id);
+            if (jobMarket != null) {
+                jobMarket.remove(id);
+            }
+        }
     }
 
+    /**
+     * Job types are translated to MITO job types once per type, unknown types are reported once.
+     */
     public void fillMitoZoneEmployees(Map<Integer, MitoZone> zones) {
-
+        final Map<String, de.tum.bgu.msm.data.jobTypes.JobType> mitoJobTypes = new HashMap<>();
+        final Set<String> undefinedJobTypes = new HashSet<>();
         for (Job jj : jobs.values()) {
-            final MitoZone zone = zones.get(jj.getZoneId());
-            final String type = jj.getType().toUpperCase();
-            try {
-                de.tum.bgu.msm.data.jobTypes.JobType mitoJobType = null;
-                switch (Properties.get().main.implementation) {
-                    case MUNICH:
-                        mitoJobType = MunichJobType.valueOf(type);
-                        break;
-                    default:
-                        logger.error("Implementation " + Properties.get().main.implementation + " is not yet supported by MITO", new IllegalArgumentException());
+            final String siloType = jj.getType();
+            if (undefinedJobTypes.contains(siloType)) {
+                continue;
+            }
+            if (!mitoJobTypes.containsKey(siloType)) {
+                final String type = siloType.toUpperCase();
+                try {
+                    de.tum.bgu.msm.data.jobTypes.JobType mitoJobType = null;
+                    switch (Properties.get().main.implementation) {
+                        case MUNICH:
+                            mitoJobType = MunichJobType.valueOf(type);
+                            break;
+                        default:
+                            logger.error("Implementation " + Properties.get().main.implementation + " is not yet supported by MITO", new IllegalArgumentException());
+                    }
+                    mitoJobTypes.put(siloType, mitoJobType);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Job type " + type + " not defined for MITO implementation: " + Properties.get().main.implementation);
+                    undefinedJobTypes.add(siloType);
+                    continue;
                 }
-                zone.addEmployeeForType(mitoJobType);
-            } catch (IllegalArgumentException e) {
-                logger.warn("Job type " + type + " not defined for MITO implementation: " + Properties.get().main.implementation);
             }
+            zones.get(jj.getZoneId()).addEmployeeForType(mitoJobTypes.get(siloType));
         }
     }
 
@@ -286,33 +307,33 @@ public class JobDataManager {
     }
 
     public void identifyVacantJobs() {
-        // identify vacant jobs by region (one-time task at beginning of model run only)
-        numberOfStoredVacantJobs = Properties.get().jobData.maxStorageOfvacantJobs;
-        int highestRegionID = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
-        vacantJobsByRegion = new int[highestRegionID + 1][numberOfStoredVacantJobs + 1];
-        vacantJobsByRegion = SiloUtil.setArrayToValue(vacantJobsByRegion, 0);
-        vacantJobsByRegionPos = new int[highestRegionID + 1];
-        vacantJobsByRegionPos = SiloUtil.setArrayToValue(vacantJobsByRegionPos, 0);
+        // index all jobs by zone and type and identify vacant jobs by region (one-time task at beginning of model run only)
+        final int highestZoneId = geoData.getZones().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        int[] regionOfZone = new int[highestZoneId + 1];
+        for (Zone zone : geoData.getZones().values()) {
+            regionOfZone[zone.getZoneId()] = zone.getRegion().getId();
+        }
+        jobMarket = new JobMarketIndex(regionOfZone, JobType.getNumberOfJobTypes());
+        resetCommuteProbabilities();
 
         logger.info("  Identifying vacant jobs");
         for (Job jj : jobs.values()) {
-            if (jj.getWorkerId() == -1) {
-                int jobId = jj.getId();
-
-                int region = geoData.getZones().get(jj.getZoneId()).getRegion().getId();
-                if (vacantJobsByRegionPos[region] < numberOfStoredVacantJobs) {
-                    vacantJobsByRegion[region][vacantJobsByRegionPos[region]] = jobId;
-                    vacantJobsByRegionPos[region]++;
-                } else {
-                    IssueCounter.countExcessOfVacantJobs(region);
-                }
-                if (jobId == SiloUtil.trackJj) {
-                    SiloUtil.trackWriter.println("Added job " + jobId + " to list of vacant jobs.");
-                }
+            final boolean vacant = jj.getWorkerId() == -1;
+            jobMarket.add(jj.getId(), jj.getZoneId(), JobType.getOrdinal(jj.getType()), vacant);
+            if (vacant && jj.getId() == SiloUtil.trackJj) {
+                SiloUtil.trackWriter.println("Added job " + jj.getId() + " to list of vacant jobs.");
             }
         }
     }
 
+    /**
+     * Drops the cached commuting probabilities from home zones to regions. Needs to be called whenever travel times change.
+     */
+    public void resetCommuteProbabilities() {
+        final int highestZoneId = geoData.getZones().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        commuteProbabilitiesByHomeZone = new double[highestZoneId + 1][][];
+    }
+
     public void quitJob(boolean makeJobAvailableToOthers, Person person) {
         // Person quits job and the job is added to the vacantJobList
         // <makeJobAvailableToOthers> is false if this job disappears from the job market
@@ -322,7 +343,7 @@ public class JobDataManager {
         final int workplace = person.getJobId();
         Job jb = jobs.get(workplace);
         if (makeJobAvailableToOthers) {
-            addJobToVacancyList(jb.getZoneId(), workplace);
+            addJobToVacancyList(jb);
         }
         jb.setWorkerID(-1);
         person.setWorkplace(-1);
@@ -333,105 +354,97 @@ public class JobDataManager {
 
 
     public int getNumberOfVacantJobsByRegion(int region) {
-        return vacantJobsByRegionPos[region];
+        return jobMarket.getNumberOfVacantJobsInRegion(region);
+    }
+
+
+    public int getNumberOfJobsByZoneAndType(int zone, String jobType) {
+        return jobMarket.getNumberOfJobs(zone, JobType.getOrdinal(jobType));
     }
 
 
-//    public static void removeJobFromVacancyList(int jobId, int region, boolean logError) {
-//        // remove job jobId in zone from vacancy list
-//
-//        boolean notFound = true;
-//
-//        if (vacantJobsByRegionPos[region] == 0) {
-//            if (logError) logger.error("No vacant jobs in region " + region + " stored. Could not remove job " + jobId + ".");
-//            return;
-//        }
-//        for (int pos = 0; pos < vacantJobsByRegionPos[region]; pos++) {
-//            if (vacantJobsByRegion[region][pos] == jobId) {
-//                vacantJobsByRegion[region][pos] = vacantJobsByRegion[region][vacantJobsByRegionPos[region] - 1];
-//                vacantJobsByRegion[region][vacantJobsByRegionPos[region] - 1] = 0;
-//                vacantJobsByRegionPos[region] -= 1;
-//                if (jobId == SiloUtil.trackJj)
-//                    SiloUtil.trackWriter.println("Removed job " + jobId + " from list of vacant jobs.");
-//                notFound = false;
-//                break;
-//            }
-//        }
-//
-//        if (notFound && logError) logger.warn("Could not find job " + jobId + " in list of vacant jobs. See method " +
-//                "<removeJobFromVacancyList>.");
-//    }
+    public int[] getVacantJobsByZoneAndType(int zone, String jobType) {
+        return jobMarket.getVacantJobs(zone, JobType.getOrdinal(jobType));
+    }
+
+
+    public int[] getOccupiedJobsByZoneAndType(int zone, String jobType) {
+        return jobMarket.getOccupiedJobs(zone, JobType.getOrdinal(jobType));
+    }
 
 
     public int findVacantJob(Zone homeZone, Collection<Region> regions, Accessibility accessibility) {
         // select vacant job for person living in homeZone
 
-        Map<Region, Double> regionProb = new HashMap<>();
+        final int highestRegionId = regions.stream().mapToInt(Region::getId).max().orElse(0);
+        double[] regionProb = new double[highestRegionId + 1];
 
         if (homeZone != null) {
             // person has home location (i.e., is not inmigrating right now)
+            final double[][] commuteProbabilities = getCommuteProbabilities(homeZone, regions, accessibility);
             for (Region reg : regions) {
-                if (vacantJobsByRegionPos[reg.getId()] > 0) {
-                    int distance = (int) (data.getTravelTimes().getTravelTimeToRegion(homeZone, reg,
-                    		Properties.get().transportModel.peakHour_s, TransportMode.car) + 0.5);
-                    regionProb.put(reg, accessibility.getCommutingTimeProbability(distance) * (double) getNumberOfVacantJobsByRegion(reg.getId()));
-                }
+                regionProb[reg.getId()] = commuteProbabilities[0][reg.getId()] * getNumberOfVacantJobsByRegion(reg.getId());
             }
-            if (SiloUtil.getSum(regionProb.values()) == 0) {
+            if (SiloUtil.getSum(regionProb) == 0) {
                 // could not find job in reasonable distance. Person will have to commute far and is likely to relocate in the future
                 for (Region reg : regions) {
-                    if (vacantJobsByRegionPos[reg.getId()] > 0) {
-                    	int distance = (int) (data.getTravelTimes().getTravelTimeToRegion(homeZone, reg,
-                                Properties.get().transportModel.peakHour_s, TransportMode.car) + 0.5);
-                    	regionProb.put(reg, 1. / distance);
+                    if (getNumberOfVacantJobsByRegion(reg.getId()) > 0) {
+                        regionProb[reg.getId()] = commuteProbabilities[1][reg.getId()];
                     }
                 }
             }
         } else {
             // person has no home location because (s)he is inmigrating right now and a dwelling has not been chosen yet
             for (Region reg : regions) {
-                if (vacantJobsByRegionPos[reg.getId()] > 0) {
-                	regionProb.put(reg, (double) getNumberOfVacantJobsByRegion(reg.getId()));
-                }
+                regionProb[reg.getId()] = getNumberOfVacantJobsByRegion(reg.getId());
             }
         }
 
-        if (SiloUtil.getSum(regionProb.values()) == 0) {
+        if (SiloUtil.getSum(regionProb) == 0) {
             logger.warn("No jobs remaining. Could not find new job.");
             return -1;
         }
-        int selectedRegion = SiloUtil.select(regionProb).getId();
-        if (getNumberOfVacantJobsByRegion(selectedRegion) == 0) {
+        int selectedRegion = SiloUtil.select(regionProb, SiloUtil.getRandomObject());
+        int jobId = jobMarket.sampleVacantJob(selectedRegion, SiloUtil.getRandomObject());
+        if (jobId < 0) {
             logger.warn("Selected region " + selectedRegion + " but could not find any jobs there.");
             return -1;
         }
-        float[] jobProbability = new float[getNumberOfVacantJobsByRegion(selectedRegion)];
-        jobProbability = SiloUtil.setArrayToValue(jobProbability, 1);
-        int selectedJob = SiloUtil.select(jobProbability);
-
-        int jobId = vacantJobsByRegion[selectedRegion][selectedJob];
-        vacantJobsByRegion[selectedRegion][selectedJob] = vacantJobsByRegion[selectedRegion][vacantJobsByRegionPos[selectedRegion] - 1];
-        vacantJobsByRegion[selectedRegion][vacantJobsByRegionPos[selectedRegion] - 1] = 0;
-        vacantJobsByRegionPos[selectedRegion] -= 1;
+        jobMarket.setOccupied(jobId);
         if (jobId == SiloUtil.trackJj)
             SiloUtil.trackWriter.println("Removed job " + jobId + " from list of vacant jobs.");
         return jobId;
     }
 
 
-    public void addJobToVacancyList(int zone, int jobId) {
-        // add job jobId to vacancy list
-
-        int region = geoData.getZones().get(zone).getRegion().getId();
-        vacantJobsByRegion[region][vacantJobsByRegionPos[region]] = jobId;
-        if (vacantJobsByRegionPos[region] < numberOfStoredVacantJobs) {
-            vacantJobsByRegionPos[region]++;
+    /**
+     * Returns the commuting probability (index 0) and the inverse travel time (index 1) from the home zone to every region.
+     * Both only depend on travel times and are therefore computed once per home zone until {@link #resetCommuteProbabilities()}.
+     */
+    private double[][] getCommuteProbabilities(Zone homeZone, Collection<Region> regions, Accessibility accessibility) {
+        double[][] probabilities = commuteProbabilitiesByHomeZone[homeZone.getZoneId()];
+        if (probabilities == null) {
+            final int highestRegionId = regions.stream().mapToInt(Region::getId).max().orElse(0);
+            probabilities = new double[2][highestRegionId + 1];
+            for (Region reg : regions) {
+                int distance = (int) (data.getTravelTimes().getTravelTimeToRegion(homeZone, reg,
+                        Properties.get().transportModel.peakHour_s, TransportMode.car) + 0.5);
+                probabilities[0][reg.getId()] = accessibility.getCommutingTimeProbability(distance);
+                probabilities[1][reg.getId()] = 1. / distance;
+            }
+            commuteProbabilitiesByHomeZone[homeZone.getZoneId()] = probabilities;
         }
-        if (vacantJobsByRegionPos[region] >= numberOfStoredVacantJobs) {
-            IssueCounter.countExcessOfVacantJobs(region);
+        return probabilities;
+    }
+
+
+    public void addJobToVacancyList(Job job) {
+        // add job to vacancy list
+        if (!jobMarket.setVacant(job.getId())) {
+            logger.warn("Consistency error: Job " + job.getId() + " could not be added to list of vacant jobs.");
         }
-        if (jobId == SiloUtil.trackJj) {
-            SiloUtil.trackWriter.println("Added job " + jobId + " to list of vacant jobs.");
+        if (job.getId() == SiloUtil.trackJj) {
+            SiloUtil.trackWriter.println("Added job " + job.getId() + " to list of vacant jobs.");
         }
     }
 
@@ -485,6 +498,11 @@ public class JobDataManager {
     }
 
     public void addJob(Job jj) {
-        this.jobs.put(jj.getId(), jj);
+        synchronized (jobs) {
+            this.jobs.put(jj.getId(), jj);
+            if (jobMarket != null) {
+                jobMarket.add(jj.getId(), jj.getZoneId(), JobType.getOrdinal(jj.getType()), jj.getWorkerId() == -1);
+            }
+        }
     }
 }
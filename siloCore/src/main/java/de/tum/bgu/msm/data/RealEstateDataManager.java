@@ -5,12 +5,14 @@ import com.google.common.collect.Multiset;
 import com.pb.common.datafile.TableDataSet;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
+import de.tum.bgu.msm.data.dwelling.DwellingMarketStatistics;
 import de.tum.bgu.msm.data.dwelling.DwellingType;
+import de.tum.bgu.msm.data.dwelling.VacantDwellingIndex;
 import de.tum.bgu.msm.data.household.Household;
 import de.tum.bgu.msm.data.household.HouseholdUtil;
 import de.tum.bgu.msm.data.household.IncomeCategory;
-import de.tum.bgu.msm.events.IssueCounter;
 import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.utils.DenseIdMap;
 import de.tum.bgu.msm.utils.SiloUtil;
 import org.apache.log4j.Logger;
 
@@ -26,7 +28,7 @@ public class RealEstateDataManager {
     static Logger logger = Logger.getLogger(RealEstateDataManager.class);
 
     private final SiloDataContainer dataContainer;
-    private final Map<Integer, Dwelling> dwellings = new HashMap<>();
+    private final DenseIdMap<Dwelling> dwellings = new DenseIdMap<>();
 
     public static int largestNoBedrooms;
     public static int[] dwellingsByQuality;
@@ -36,9 +38,8 @@ public class RealEstateDataManager {
     private static final Map<IncomeCategory, Map<Integer, Float>> ddPriceByIncomeCategory = new EnumMap<>(IncomeCategory.class);
 
     private static int[] dwellingsByRegion;
-    private static int[][] vacDwellingsByRegion;
-    private static int[] vacDwellingsByRegionPos;
-    private static int numberOfStoredVacantDD;
+    private static VacantDwellingIndex vacantDwellings;
+    private DwellingMarketStatistics marketStatistics;
     private double[] avePrice;
     private double[] aveVac;
     private static float[] medianRent;
@@ -64,10 +65,49 @@ public class RealEstateDataManager {
 
     public void removeDwelling(int id) {
         dwellings.remove(id);
+        if (marketStatistics != null) {
+            marketStatistics.remove(id);
+        }
     }
 
     public void addDwelling(Dwelling dwelling) {
         this.dwellings.put(dwelling.getId(), dwelling);
+        if (marketStatistics != null) {
+            addToMarketStatistics(dwelling);
+        }
+    }
+
+    public void setDwellingPrice(Dwelling dwelling, int price) {
+        dwelling.setPrice(price);
+        if (marketStatistics != null) {
+            marketStatistics.setPrice(dwelling.getId(), price);
+        }
+    }
+
+    /**
+     * Returns the market statistics by dwelling type and zone/region, which are set up with a single pass over
+     * all dwellings on first use. Afterwards, they are kept up to date by {@link #addDwelling}, {@link #removeDwelling},
+     * {@link #setDwellingPrice} and by adding dwellings to or removing dwellings from the vacancy list.
+     */
+    private DwellingMarketStatistics getMarketStatistics() {
+        if (marketStatistics == null) {
+            final GeoData geoData = dataContainer.getGeoData();
+            final int highestZoneId = geoData.getZones().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+            int[] regionOfZone = new int[highestZoneId + 1];
+            for (Zone zone : geoData.getZones().values()) {
+                regionOfZone[zone.getZoneId()] = zone.getRegion().getId();
+            }
+            marketStatistics = new DwellingMarketStatistics(regionOfZone, dwellingTypes.size());
+            for (Dwelling dd : dwellings.values()) {
+                addToMarketStatistics(dd);
+            }
+        }
+        return marketStatistics;
+    }
+
+    private void addToMarketStatistics(Dwelling dd) {
+        marketStatistics.add(dd.getId(), dwellingTypes.indexOf(dd.getType()), dd.getZoneId(),
+                dd.getPrice(), dd.getBedrooms(), dd.getResidentId() > 0);
     }
 
     public void identifyVacantDwellings() {
@@ -75,12 +115,8 @@ public class RealEstateDataManager {
 
         final GeoData geoData = dataContainer.getGeoData();
         int highestRegion = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
-        numberOfStoredVacantDD = Properties.get().realEstate.maxStorageOfVacantDwellings;
         dwellingsByRegion = new int[highestRegion + 1];
-        vacDwellingsByRegion = new int[highestRegion + 1][numberOfStoredVacantDD + 1];
-        vacDwellingsByRegion = SiloUtil.setArrayToValue(vacDwellingsByRegion, 0);
-        vacDwellingsByRegionPos = new int[highestRegion + 1];
-        vacDwellingsByRegionPos = SiloUtil.setArrayToValue(vacDwellingsByRegionPos, 0);
+        vacantDwellings = new VacantDwellingIndex(highestRegion, dwellingTypes.size());
 
         logger.info("  Identifying vacant dwellings");
         for (Dwelling dd : dwellings.values()) {
@@ -88,10 +124,7 @@ public class RealEstateDataManager {
                 int dwellingId = dd.getId();
                 int region = geoData.getZones().get(dd.getZoneId()).getRegion().getId();
                 dwellingsByRegion[region]++;
-                vacDwellingsByRegion[region][vacDwellingsByRegionPos[region]] = dwellingId;
-                if (vacDwellingsByRegionPos[region] < numberOfStoredVacantDD) vacDwellingsByRegionPos[region]++;
-                if (vacDwellingsByRegionPos[region] >= numberOfStoredVacantDD)
-                    IssueCounter.countExcessOfVacantDwellings(region);
+                vacantDwellings.add(dwellingId, region, dwellingTypes.indexOf(dd.getType()));
                 if (dwellingId == SiloUtil.trackDd)
                     SiloUtil.trackWriter.println("Added dwelling " + dwellingId + " to list of vacant dwelling.");
             }
@@ -162,6 +195,10 @@ public class RealEstateDataManager {
     }
 
 
+    public static int getHighestDwellingIdInUse() {
+        return highestDwellingIdInUse;
+    }
+
     public static int getNextDwellingId() {
         // increase highestDwellingIdInUse by 1 and return value
         highestDwellingIdInUse++;
@@ -295,50 +332,76 @@ public class RealEstateDataManager {
 
     public static int[] getListOfVacantDwellingsInRegion(int region) {
         // return array with IDs of vacant dwellings in region
+        return vacantDwellings.getVacantDwellings(region);
+    }
+
 
-        int[] vacancies = new int[vacDwellingsByRegionPos[region]];
-        System.arraycopy(vacDwellingsByRegion[region], 0, vacancies, 0, vacDwellingsByRegionPos[region]);
-        return vacancies;
+    /**
+     * Draws up to k distinct vacant dwellings in the region at random, without copying the list of vacant dwellings.
+     */
+    public static int[] sampleVacantDwellingsInRegion(int region, int k, Random random) {
+        return vacantDwellings.sample(region, k, random);
+    }
+
+    /**
+     * Draws up to k distinct vacant dwellings in the region at random, with dwelling types represented in proportion
+     * to their share of vacant dwellings in the region.
+     */
+    public static int[] sampleVacantDwellingsInRegionByType(int region, int k, Random random) {
+        return vacantDwellings.sampleStratifiedByType(region, k, random);
+    }
+
+    /**
+     * Same as {@link #sampleVacantDwellingsInRegion(int, int, Random)}, but may be called by several threads at the
+     * same time as long as no dwelling becomes vacant or occupied meanwhile.
+     */
+    public static int[] sampleVacantDwellingsInRegionWithoutReordering(int region, int k, Random random) {
+        return vacantDwellings.sampleWithoutReordering(region, k, random);
+    }
+
+    /**
+     * Same as {@link #sampleVacantDwellingsInRegionByType(int, int, Random)}, but may be called by several threads
+     * at the same time as long as no dwelling becomes vacant or occupied meanwhile.
+     */
+    public static int[] sampleVacantDwellingsInRegionByTypeWithoutReordering(int region, int k, Random random) {
+        return vacantDwellings.sampleStratifiedByTypeWithoutReordering(region, k, random);
     }
 
 
     public static int getNumberOfVacantDDinRegion(int region) {
-        return Math.max(vacDwellingsByRegionPos[region] - 1, 0);
+        return Math.max(vacantDwellings.getNumberOfVacantDwellings(region) - 1, 0);
+    }
+
+
+    public int getNumberOfVacantDDinRegion(int region, DwellingType type) {
+        return vacantDwellings.getNumberOfVacantDwellings(region, dwellingTypes.indexOf(type));
     }
 
 
     public void removeDwellingFromVacancyList(int ddId) {
         // remove dwelling with ID ddId from list of vacant dwellings
-
-        boolean found = false;
-
-        // todo: when selecting a vacant dwelling, I should be able to store the index of this dwelling in the vacDwellingByRegion array, which should make it faster to remove the vacant dwelling from this array.
-        int region = dataContainer.getGeoData().getZones()
-                .get(dwellings.get(ddId).getZoneId()).getRegion().getId();
-        for (int i = 0; i < vacDwellingsByRegionPos[region]; i++) {
-            if (vacDwellingsByRegion[region][i] == ddId) {
-                vacDwellingsByRegion[region][i] = vacDwellingsByRegion[region][vacDwellingsByRegionPos[region] - 1];
-                vacDwellingsByRegion[region][vacDwellingsByRegionPos[region] - 1] = 0;
-                vacDwellingsByRegionPos[region] -= 1;
-                if (ddId == SiloUtil.trackDd) SiloUtil.trackWriter.println("Removed dwelling " + ddId +
-                        " from list of vacant dwellings.");
-                found = true;
-                break;
-            }
+        if (marketStatistics != null) {
+            marketStatistics.setOccupied(ddId, true);
+        }
+        if (vacantDwellings.remove(ddId)) {
+            if (ddId == SiloUtil.trackDd) SiloUtil.trackWriter.println("Removed dwelling " + ddId +
+                    " from list of vacant dwellings.");
+        } else {
+            logger.warn("Consistency error: Could not find vacant dwelling " + ddId + " in list of vacant dwellings.");
         }
-        if (!found)
-            logger.warn("Consistency error: Could not find vacant dwelling " + ddId + " in vacDwellingsByRegion.");
     }
 
 
     public void addDwellingToVacancyList(Dwelling dd) {
         // add dwelling to vacancy list
 
+        if (marketStatistics != null) {
+            marketStatistics.setOccupied(dd.getId(), false);
+        }
         int region = dataContainer.getGeoData().getZones().get(dd.getZoneId()).getRegion().getId();
-        vacDwellingsByRegion[region][vacDwellingsByRegionPos[region]] = dd.getId();
-        if (vacDwellingsByRegionPos[region] < numberOfStoredVacantDD) vacDwellingsByRegionPos[region]++;
-        if (vacDwellingsByRegionPos[region] >= numberOfStoredVacantDD)
-            IssueCounter.countExcessOfVacantDwellings(region);
+        if (!vacantDwellings.add(dd.getId(), region, dwellingTypes.indexOf(dd.getType()))) {
+            logger.warn("Consistency error: Dwelling " + dd.getId() + " is already in list of vacant dwellings.");
+        }
         if (dd.getId() == SiloUtil.trackDd) SiloUtil.trackWriter.println("Added dwelling " + dd.getId() +
                 " to list of vacant dwellings.");
     }
@@ -347,30 +410,24 @@ public class RealEstateDataManager {
     public void calculateRegionWidePriceAndVacancyByDwellingType() {
         // calculate region-wide average dwelling costs and vacancy by dwelling type
 
+        final DwellingMarketStatistics statistics = getMarketStatistics();
+        final Set<Integer> regions = dataContainer.getGeoData().getRegions().keySet();
         int distinctDdTypes = dwellingTypes.size();
-        int[][] vacOcc = SiloUtil.setArrayToValue(new int[2][distinctDdTypes], 0);
-        long[] price = SiloUtil.setArrayToValue(new long[distinctDdTypes], 0);
-
-        for (Dwelling dd : dwellings.values()) {
-            int dto = dwellingTypes.indexOf(dd.getType());
-            price[dto] += dd.getPrice();
-
-            if (dd.getResidentId() > 0) {
-                vacOcc[1][dto]++;
-            } else {
-                vacOcc[0][dto]++;
-            }
-        }
         aveVac = new double[distinctDdTypes];
         avePrice = new double[distinctDdTypes];
 
-        for (DwellingType dt : dwellingTypes) {
-            int dto = dwellingTypes.indexOf(dt);
-
-            if (vacOcc[0][dto] + vacOcc[1][dto] > 0) {
-                aveVac[dto] = (double) vacOcc[0][dto] / (double) (vacOcc[0][dto] + vacOcc[1][dto]);
-                avePrice[dto] = price[dto] / (double) (vacOcc[0][dto] + vacOcc[1][dto]);
-
+        for (int dto = 0; dto < distinctDdTypes; dto++) {
+            int count = 0;
+            int occupied = 0;
+            long price = 0;
+            for (int region : regions) {
+                count += statistics.getNumberOfDwellingsInRegion(dto, region);
+                occupied += statistics.getNumberOfOccupiedDwellingsInRegion(dto, region);
+                price += statistics.getPriceSumInRegion(dto, region);
+            }
+            if (count > 0) {
+                aveVac[dto] = (double) (count - occupied) / (double) count;
+                avePrice[dto] = price / (double) count;
             } else {
                 aveVac[dto] = 0;
                 avePrice[dto] = 0;
@@ -382,25 +439,15 @@ public class RealEstateDataManager {
     public double[][] getVacancyRateByTypeAndRegion() {
         // calculate vacancy rate by region and dwelling type
 
+        final DwellingMarketStatistics statistics = getMarketStatistics();
         final GeoData geoData = dataContainer.getGeoData();
         final int highestRegionId = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
-        int[][][] vacOcc = SiloUtil.setArrayToValue(new int[2][dwellingTypes.size()][highestRegionId + 1], 0);
-
-        for (Dwelling dd : dwellings.values()) {
-            int dto = dwellingTypes.indexOf(dd.getType());
-            if (dd.getResidentId() > 0) {
-                vacOcc[1][dto][geoData.getZones().get(dd.getZoneId()).getRegion().getId()]++;
-            } else {
-                vacOcc[0][dto][geoData.getZones().get(dd.getZoneId()).getRegion().getId()]++;
-            }
-        }
-
         double[][] vacRate = new double[dwellingTypes.size()][highestRegionId + 1];
-        for (DwellingType dt : dwellingTypes) {
-            int dto = dwellingTypes.indexOf(dt);
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
             for (int region : geoData.getRegions().keySet()) {
-                if ((vacOcc[0][dto][region] + vacOcc[1][dto][region]) > 0) {
-                    vacRate[dto][region] = (double) vacOcc[0][dto][region] / (double) (vacOcc[0][dto][region] + vacOcc[1][dto][region]);
+                int count = statistics.getNumberOfDwellingsInRegion(dto, region);
+                if (count > 0) {
+                    vacRate[dto][region] = (double) (count - statistics.getNumberOfOccupiedDwellingsInRegion(dto, region)) / (double) count;
                 } else {
                     vacRate[dto][region] = 0.;
                 }
@@ -410,6 +457,66 @@ public class RealEstateDataManager {
     }
 
 
+    /**
+     * @return average price by dwelling type and zone, 0 if there is no dwelling of this type in the zone
+     */
+    public float[][] getAveragePriceByTypeAndZone() {
+        final DwellingMarketStatistics statistics = getMarketStatistics();
+        final GeoData geoData = dataContainer.getGeoData();
+        final int highestZoneId = geoData.getZones().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        float[][] price = new float[dwellingTypes.size()][highestZoneId + 1];
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            for (int zone : geoData.getZones().keySet()) {
+                int count = statistics.getNumberOfDwellingsInZone(dto, zone);
+                if (count > 0) {
+                    price[dto][zone] = (float) statistics.getPriceSumInZone(dto, zone) / count;
+                }
+            }
+        }
+        return price;
+    }
+
+
+    /**
+     * @return average price by dwelling type and region, 0 if there is no dwelling of this type in the region
+     */
+    public float[][] getAveragePriceByTypeAndRegion() {
+        final DwellingMarketStatistics statistics = getMarketStatistics();
+        final GeoData geoData = dataContainer.getGeoData();
+        final int highestRegionId = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        float[][] price = new float[dwellingTypes.size()][highestRegionId + 1];
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            for (int region : geoData.getRegions().keySet()) {
+                int count = statistics.getNumberOfDwellingsInRegion(dto, region);
+                if (count > 0) {
+                    price[dto][region] = (float) statistics.getPriceSumInRegion(dto, region) / count;
+                }
+            }
+        }
+        return price;
+    }
+
+
+    /**
+     * @return average number of bedrooms by dwelling type and region, 0 if there is no dwelling of this type in the region
+     */
+    public float[][] getAverageSizeByTypeAndRegion() {
+        final DwellingMarketStatistics statistics = getMarketStatistics();
+        final GeoData geoData = dataContainer.getGeoData();
+        final int highestRegionId = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
+        float[][] size = new float[dwellingTypes.size()][highestRegionId + 1];
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            for (int region : geoData.getRegions().keySet()) {
+                int count = statistics.getNumberOfDwellingsInRegion(dto, region);
+                if (count > 0) {
+                    size[dto][region] = (float) statistics.getSizeSumInRegion(dto, region) / count;
+                }
+            }
+        }
+        return size;
+    }
+
+
     public void setAvePriceByDwellingType(double[] newAvePrice) {
         avePrice = newAvePrice;
     }
@@ -428,13 +535,16 @@ public class RealEstateDataManager {
     public int[][] getDwellingCountByTypeAndRegion() {
         // return number of dwellings by type and region
 
+        final DwellingMarketStatistics statistics = getMarketStatistics();
         final GeoData geoData = dataContainer.getGeoData();
         final int highestRegionId = geoData.getRegions().keySet().stream().mapToInt(Integer::intValue).max().getAsInt();
         int[][] dwellingCount =
                 SiloUtil.setArrayToValue(new int[dwellingTypes.size()][highestRegionId + 1], 1);
 
-        for (Dwelling dd : dwellings.values()) {
-            dwellingCount[dwellingTypes.indexOf(dd.getType())][geoData.getZones().get(dd.getZoneId()).getRegion().getId()]++;
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            for (int region : geoData.getRegions().keySet()) {
+                dwellingCount[dto][region] += statistics.getNumberOfDwellingsInRegion(dto, region);
+            }
         }
         return dwellingCount;
     }
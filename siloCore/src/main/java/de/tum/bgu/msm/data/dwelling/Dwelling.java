@@ -2,11 +2,8 @@ package de.tum.bgu.msm.data.dwelling;
 
 import com.vividsolutions.jts.geom.Coordinate;
 import de.tum.bgu.msm.data.Id;
-import de.tum.bgu.msm.data.household.HouseholdType;
 import de.tum.bgu.msm.data.Location;
 
-import java.util.EnumMap;
-
 public interface Dwelling extends Location, Id {
 
     int getQuality();
@@ -33,8 +30,6 @@ public interface Dwelling extends Location, Id {
 
     void setRestriction(float restriction);
 
-    void setUtilitiesByHouseholdType(EnumMap<HouseholdType, Double> utilitiesByHouseholdType);
-
     void setUtilOfResident(double utilOfResident);
 
     void setFloorSpace(int floorSpace);
@@ -17,11 +17,8 @@
 package de.tum.bgu.msm.data.dwelling;
 
 import com.vividsolutions.jts.geom.Coordinate;
-import de.tum.bgu.msm.data.household.HouseholdType;
 import de.tum.bgu.msm.data.MicroLocation;
 
-import java.util.EnumMap;
-
 /**
  * @author Greg Erhardt
  * Created on Dec 2, 2009
@@ -40,7 +37,6 @@ public final class DwellingImpl implements Dwelling, MicroLocation {
     private float restriction;
     //Attributes that are generated by SILO
     private double utilOfResident;
-    private EnumMap<HouseholdType, Double> utilitiesByHouseholdType;
     //Attributes that could be additionally defined from the synthetic population. Remember to use "set"
     //Attributes that could be additionally defined from the synthetic population. Remember to use "set"
     private int buildingSize = 0;
@@ -63,7 +59,6 @@ public final class DwellingImpl implements Dwelling, MicroLocation {
         this.restriction = restriction;
         this.yearBuilt = year;
         this.utilOfResident = 0.;
-        this.utilitiesByHouseholdType = new EnumMap<>(HouseholdType.class);
     }
 
     @Override
@@ -117,10 +112,6 @@ public final class DwellingImpl implements Dwelling, MicroLocation {
         return restriction;
     }
 
-    public EnumMap<HouseholdType, Double> getUtilitiesByHouseholdType() {
-        return utilitiesByHouseholdType;
-    }
-
     @Override
     public double getUtilOfResident() {
         return utilOfResident;
@@ -147,11 +138,6 @@ public final class DwellingImpl implements Dwelling, MicroLocation {
         this.restriction = restriction;
     }
 
-    @Override
-    public void setUtilitiesByHouseholdType(EnumMap<HouseholdType, Double> utilitiesByHouseholdType) {
-        this.utilitiesByHouseholdType = utilitiesByHouseholdType;
-    }
-
     @Override
     public void setUtilOfResident(double utilOfResident) {
         this.utilOfResident = utilOfResident;
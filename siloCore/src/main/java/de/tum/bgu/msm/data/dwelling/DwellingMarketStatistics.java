@@ -0,0 +1,177 @@
+package de.tum.bgu.msm.data.dwelling;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates of the dwelling market by dwelling type and zone and by dwelling type and region:
+ * number of dwellings, number of occupied dwellings, sum of prices and sum of sizes (bedrooms).
+ * The attributes that were recorded for every dwelling are kept, so a change is applied by replacing
+ * the contribution of this single dwelling instead of scanning all dwellings again.
+ * Dwelling types are referred to by their index in the list of dwelling types of the implementation.
+ * Not thread safe.
+ */
+public final class DwellingMarketStatistics {
+
+    private final int[] regionOfZone;
+
+    private final int[][] dwellingsByZone;
+    private final int[][] occupiedByZone;
+    private final long[][] priceSumByZone;
+    private final long[][] sizeSumByZone;
+
+    private final int[][] dwellingsByRegion;
+    private final int[][] occupiedByRegion;
+    private final long[][] priceSumByRegion;
+    private final long[][] sizeSumByRegion;
+
+    // by dwelling id, typeOfDwelling is -1 if dwelling is not recorded
+    private int[] typeOfDwelling = new int[0];
+    private int[] zoneOfDwelling = new int[0];
+    private int[] priceOfDwelling = new int[0];
+    private int[] sizeOfDwelling = new int[0];
+    private boolean[] occupied = new boolean[0];
+
+    /**
+     * @param regionOfZone region id by zone id
+     */
+    public DwellingMarketStatistics(int[] regionOfZone, int numberOfDwellingTypes) {
+        this.regionOfZone = regionOfZone;
+        final int highestRegionId = Arrays.stream(regionOfZone).max().orElse(0);
+        dwellingsByZone = new int[numberOfDwellingTypes][regionOfZone.length];
+        occupiedByZone = new int[numberOfDwellingTypes][regionOfZone.length];
+        priceSumByZone = new long[numberOfDwellingTypes][regionOfZone.length];
+        sizeSumByZone = new long[numberOfDwellingTypes][regionOfZone.length];
+        dwellingsByRegion = new int[numberOfDwellingTypes][highestRegionId + 1];
+        occupiedByRegion = new int[numberOfDwellingTypes][highestRegionId + 1];
+        priceSumByRegion = new long[numberOfDwellingTypes][highestRegionId + 1];
+        sizeSumByRegion = new long[numberOfDwellingTypes][highestRegionId + 1];
+    }
+
+    /**
+     * @return false if the dwelling was already recorded
+     */
+    public boolean add(int dwellingId, int type, int zone, int price, int size, boolean isOccupied) {
+        ensureCapacity(dwellingId);
+        if (typeOfDwelling[dwellingId] >= 0) {
+            return false;
+        }
+        typeOfDwelling[dwellingId] = type;
+        zoneOfDwelling[dwellingId] = zone;
+        priceOfDwelling[dwellingId] = price;
+        sizeOfDwelling[dwellingId] = size;
+        occupied[dwellingId] = isOccupied;
+        apply(dwellingId, 1);
+        return true;
+    }
+
+    /**
+     * @return false if the dwelling was not recorded
+     */
+    public boolean remove(int dwellingId) {
+        if (!contains(dwellingId)) {
+            return false;
+        }
+        apply(dwellingId, -1);
+        typeOfDwelling[dwellingId] = -1;
+        return true;
+    }
+
+    /**
+     * @return false if the dwelling was not recorded
+     */
+    public boolean setOccupied(int dwellingId, boolean isOccupied) {
+        if (!contains(dwellingId)) {
+            return false;
+        }
+        if (occupied[dwellingId] != isOccupied) {
+            int delta = isOccupied ? 1 : -1;
+            int type = typeOfDwelling[dwellingId];
+            int zone = zoneOfDwelling[dwellingId];
+            occupiedByZone[type][zone] += delta;
+            occupiedByRegion[type][regionOfZone[zone]] += delta;
+            occupied[dwellingId] = isOccupied;
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the dwelling was not recorded
+     */
+    public boolean setPrice(int dwellingId, int price) {
+        if (!contains(dwellingId)) {
+            return false;
+        }
+        int type = typeOfDwelling[dwellingId];
+        int zone = zoneOfDwelling[dwellingId];
+        long delta = (long) price - priceOfDwelling[dwellingId];
+        priceSumByZone[type][zone] += delta;
+        priceSumByRegion[type][regionOfZone[zone]] += delta;
+        priceOfDwelling[dwellingId] = price;
+        return true;
+    }
+
+    public boolean contains(int dwellingId) {
+        return dwellingId >= 0 && dwellingId < typeOfDwelling.length && typeOfDwelling[dwellingId] >= 0;
+    }
+
+    public int getNumberOfDwellingsInZone(int type, int zone) {
+        return dwellingsByZone[type][zone];
+    }
+
+    public int getNumberOfOccupiedDwellingsInZone(int type, int zone) {
+        return occupiedByZone[type][zone];
+    }
+
+    public long getPriceSumInZone(int type, int zone) {
+        return priceSumByZone[type][zone];
+    }
+
+    public long getSizeSumInZone(int type, int zone) {
+        return sizeSumByZone[type][zone];
+    }
+
+    public int getNumberOfDwellingsInRegion(int type, int region) {
+        return dwellingsByRegion[type][region];
+    }
+
+    public int getNumberOfOccupiedDwellingsInRegion(int type, int region) {
+        return occupiedByRegion[type][region];
+    }
+
+    public long getPriceSumInRegion(int type, int region) {
+        return priceSumByRegion[type][region];
+    }
+
+    public long getSizeSumInRegion(int type, int region) {
+        return sizeSumByRegion[type][region];
+    }
+
+    private void apply(int dwellingId, int sign) {
+        int type = typeOfDwelling[dwellingId];
+        int zone = zoneOfDwelling[dwellingId];
+        int region = regionOfZone[zone];
+        dwellingsByZone[type][zone] += sign;
+        dwellingsByRegion[type][region] += sign;
+        if (occupied[dwellingId]) {
+            occupiedByZone[type][zone] += sign;
+            occupiedByRegion[type][region] += sign;
+        }
+        priceSumByZone[type][zone] += sign * (long) priceOfDwelling[dwellingId];
+        priceSumByRegion[type][region] += sign * (long) priceOfDwelling[dwellingId];
+        sizeSumByZone[type][zone] += sign * (long) sizeOfDwelling[dwellingId];
+        sizeSumByRegion[type][region] += sign * (long) sizeOfDwelling[dwellingId];
+    }
+
+    private void ensureCapacity(int dwellingId) {
+        if (dwellingId >= typeOfDwelling.length) {
+            int oldLength = typeOfDwelling.length;
+            int newLength = Math.max(dwellingId + 1, oldLength + (oldLength >> 1));
+            typeOfDwelling = Arrays.copyOf(typeOfDwelling, newLength);
+            zoneOfDwelling = Arrays.copyOf(zoneOfDwelling, newLength);
+            priceOfDwelling = Arrays.copyOf(priceOfDwelling, newLength);
+            sizeOfDwelling = Arrays.copyOf(sizeOfDwelling, newLength);
+            occupied = Arrays.copyOf(occupied, newLength);
+            Arrays.fill(typeOfDwelling, oldLength, newLength, -1);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package de.tum.bgu.msm.data.dwelling;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Index of vacant dwellings by region and by region and dwelling type.
+ * Every dwelling remembers its position in both buckets, so adding and removing a dwelling
+ * is done in constant time by swapping with the last element of the bucket. Buckets grow as
+ * needed, there is no limit on the number of vacant dwellings that can be stored.
+ * Dwelling types are referred to by their index in the list of dwelling types of the implementation.
+ * Not thread safe, except for sampling without reordering.
+ */
+public final class VacantDwellingIndex {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private final int[][] regionBuckets;
+    private final int[] regionSizes;
+    private final int[][][] typeBuckets;
+    private final int[][] typeSizes;
+
+    // by dwelling id, -1 if dwelling is not vacant
+    private int[] positionInRegion = new int[0];
+    private int[] positionInType = new int[0];
+    private int[] regionOfDwelling = new int[0];
+    private int[] typeOfDwelling = new int[0];
+
+    private int size = 0;
+
+    public VacantDwellingIndex(int highestRegionId, int numberOfDwellingTypes) {
+        regionBuckets = new int[highestRegionId + 1][INITIAL_BUCKET_CAPACITY];
+        regionSizes = new int[highestRegionId + 1];
+        typeBuckets = new int[highestRegionId + 1][numberOfDwellingTypes][INITIAL_BUCKET_CAPACITY];
+        typeSizes = new int[highestRegionId + 1][numberOfDwellingTypes];
+    }
+
+    /**
+     * @return false if the dwelling was already stored as vacant
+     */
+    public boolean add(int dwellingId, int region, int type) {
+        ensureCapacity(dwellingId);
+        if (positionInRegion[dwellingId] >= 0) {
+            return false;
+        }
+        if (regionSizes[region] == regionBuckets[region].length) {
+            regionBuckets[region] = Arrays.copyOf(regionBuckets[region], regionBuckets[region].length * 2);
+        }
+        if (typeSizes[region][type] == typeBuckets[region][type].length) {
+            typeBuckets[region][type] = Arrays.copyOf(typeBuckets[region][type], typeBuckets[region][type].length * 2);
+        }
+        regionBuckets[region][regionSizes[region]] = dwellingId;
+        positionInRegion[dwellingId] = regionSizes[region]++;
+        typeBuckets[region][type][typeSizes[region][type]] = dwellingId;
+        positionInType[dwellingId] = typeSizes[region][type]++;
+        regionOfDwelling[dwellingId] = region;
+        typeOfDwelling[dwellingId] = type;
+        size++;
+        return true;
+    }
+
+    /**
+     * @return false if the dwelling was not stored as vacant
+     */
+    public boolean remove(int dwellingId) {
+        if (!contains(dwellingId)) {
+            return false;
+        }
+        int region = regionOfDwelling[dwellingId];
+        int type = typeOfDwelling[dwellingId];
+        removeFromBucket(regionBuckets[region], --regionSizes[region], positionInRegion, dwellingId);
+        removeFromBucket(typeBuckets[region][type], --typeSizes[region][type], positionInType, dwellingId);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int dwellingId) {
+        return dwellingId >= 0 && dwellingId < positionInRegion.length && positionInRegion[dwellingId] >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumberOfVacantDwellings(int region) {
+        return regionSizes[region];
+    }
+
+    public int getNumberOfVacantDwellings(int region, int type) {
+        return typeSizes[region][type];
+    }
+
+    /**
+     * @return a copy of the ids of all vacant dwellings in the region, in no particular order
+     */
+    public int[] getVacantDwellings(int region) {
+        return Arrays.copyOf(regionBuckets[region], regionSizes[region]);
+    }
+
+    /**
+     * Draws up to k distinct vacant dwellings of the region uniformly at random without copying the region.
+     * @return the ids of min(k, number of vacant dwellings in region) dwellings
+     */
+    public int[] sample(int region, int k, Random random) {
+        return sample(regionBuckets[region], regionSizes[region], positionInRegion, k, random);
+    }
+
+    /**
+     * Draws up to k distinct vacant dwellings of the given type in the region uniformly at random.
+     * @return the ids of min(k, number of vacant dwellings of this type in region) dwellings
+     */
+    public int[] sample(int region, int type, int k, Random random) {
+        return sample(typeBuckets[region][type], typeSizes[region][type], positionInType, k, random);
+    }
+
+    /**
+     * Draws up to k distinct vacant dwellings of the region, with each dwelling type represented in proportion to
+     * its share of vacant dwellings in the region. Quotas are rounded by largest remainder, so exactly
+     * min(k, number of vacant dwellings in region) dwellings are returned, grouped by type.
+     */
+    public int[] sampleStratifiedByType(int region, int k, Random random) {
+        return sampleStratifiedByType(region, k, random, true);
+    }
+
+    /**
+     * Same as {@link #sample(int, int, Random)}, but leaves the index untouched. Several threads may sample
+     * at the same time as long as no dwellings are added or removed meanwhile.
+     */
+    public int[] sampleWithoutReordering(int region, int k, Random random) {
+        return sampleWithoutReordering(regionBuckets[region], regionSizes[region], k, random);
+    }
+
+    /**
+     * Same as {@link #sampleStratifiedByType(int, int, Random)}, but leaves the index untouched. Several threads
+     * may sample at the same time as long as no dwellings are added or removed meanwhile.
+     */
+    public int[] sampleStratifiedByTypeWithoutReordering(int region, int k, Random random) {
+        return sampleStratifiedByType(region, k, random, false);
+    }
+
+    private int[] sampleStratifiedByType(int region, int k, Random random, boolean reorder) {
+        int total = regionSizes[region];
+        int n = Math.min(k, total);
+        int numberOfTypes = typeSizes[region].length;
+        int[] quotas = new int[numberOfTypes];
+        long[] remainders = new long[numberOfTypes];
+        int allocated = 0;
+        for (int type = 0; type < numberOfTypes; type++) {
+            long share = (long) n * typeSizes[region][type];
+            quotas[type] = (int) (share / Math.max(total, 1));
+            remainders[type] = share % Math.max(total, 1);
+            allocated += quotas[type];
+        }
+        // each type gets at most one more dwelling, ties go to the type with the lower index
+        for (; allocated < n; allocated++) {
+            int best = -1;
+            for (int type = 0; type < numberOfTypes; type++) {
+                if (remainders[type] >= 0 && (best < 0 || remainders[type] > remainders[best])) {
+                    best = type;
+                }
+            }
+            quotas[best]++;
+            remainders[best] = -1;
+        }
+        int[] result = new int[n];
+        int position = 0;
+        for (int type = 0; type < numberOfTypes; type++) {
+            if (quotas[type] > 0) {
+                int[] sample = reorder ? sample(region, type, quotas[type], random)
+                        : sampleWithoutReordering(typeBuckets[region][type], typeSizes[region][type], quotas[type], random);
+                System.arraycopy(sample, 0, result, position, sample.length);
+                position += sample.length;
+            }
+        }
+        return result;
+    }
+
+    private static int[] sample(int[] bucket, int bucketSize, int[] positions, int k, Random random) {
+        int n = Math.min(k, bucketSize);
+        // partial Fisher-Yates shuffle of the front of the bucket. The order within a bucket carries
+        // no meaning, so the swaps can remain in place as long as the stored positions are updated.
+        for (int i = 0; i < n; i++) {
+            int j = i + random.nextInt(bucketSize - i);
+            int id = bucket[j];
+            bucket[j] = bucket[i];
+            positions[bucket[j]] = j;
+            bucket[i] = id;
+            positions[id] = i;
+        }
+        return Arrays.copyOf(bucket, n);
+    }
+
+    private static int[] sampleWithoutReordering(int[] bucket, int bucketSize, int k, Random random) {
+        int n = Math.min(k, bucketSize);
+        // Floyd's algorithm draws n distinct positions with n random numbers. Samples are small,
+        // so drawn positions are looked up by a linear scan.
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            int upper = bucketSize - n + i;
+            int position = random.nextInt(upper + 1);
+            for (int j = 0; j < i; j++) {
+                if (positions[j] == position) {
+                    position = upper;
+                    break;
+                }
+            }
+            positions[i] = position;
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = bucket[positions[i]];
+        }
+        return result;
+    }
+
+    private static void removeFromBucket(int[] bucket, int lastPosition, int[] positions, int dwellingId) {
+        int position = positions[dwellingId];
+        int last = bucket[lastPosition];
+        bucket[position] = last;
+        positions[last] = position;
+        bucket[lastPosition] = 0;
+        positions[dwellingId] = -1;
+    }
+
+    private void ensureCapacity(int dwellingId) {
+        if (dwellingId >= positionInRegion.length) {
+            int oldLength = positionInRegion.length;
+            int newLength = Math.max(dwellingId + 1, oldLength + (oldLength >> 1));
+            positionInRegion = Arrays.copyOf(positionInRegion, newLength);
+            positionInType = Arrays.copyOf(positionInType, newLength);
+            regionOfDwelling = Arrays.copyOf(regionOfDwelling, newLength);
+            typeOfDwelling = Arrays.copyOf(typeOfDwelling, newLength);
+            Arrays.fill(positionInRegion, oldLength, newLength, -1);
+            Arrays.fill(positionInType, oldLength, newLength, -1);
+        }
+    }
+}
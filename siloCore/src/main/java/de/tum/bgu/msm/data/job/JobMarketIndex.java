@@ -0,0 +1,196 @@
+package de.tum.bgu.msm.data.job;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Index of all jobs by zone and job type, and of vacant jobs by region.
+ * Within the bucket of a zone and job type, vacant jobs are kept in front of occupied jobs, so both
+ * groups can be counted and listed without scanning all jobs. Every job remembers its positions,
+ * which makes adding, removing, occupying and vacating a job a constant-time swap.
+ * Job types are referred to by their ordinal in {@link JobType}. Not thread safe.
+ */
+public final class JobMarketIndex {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final int[] regionOfZone;
+
+    private final int[][][] zoneBuckets;
+    private final int[][] zoneSizes;
+    private final int[][] zoneVacancies;
+    private final int[][] regionBuckets;
+    private final int[] regionSizes;
+
+    // by job id, positionInZone is -1 if job is not indexed and positionInRegion is -1 if job is not vacant
+    private int[] zoneOfJob = new int[0];
+    private int[] typeOfJob = new int[0];
+    private int[] positionInZone = new int[0];
+    private int[] positionInRegion = new int[0];
+
+    /**
+     * @param regionOfZone region id by zone id
+     */
+    public JobMarketIndex(int[] regionOfZone, int numberOfJobTypes) {
+        this.regionOfZone = regionOfZone;
+        final int highestRegionId = Arrays.stream(regionOfZone).max().orElse(0);
+        zoneBuckets = new int[regionOfZone.length][numberOfJobTypes][];
+        zoneSizes = new int[regionOfZone.length][numberOfJobTypes];
+        zoneVacancies = new int[regionOfZone.length][numberOfJobTypes];
+        regionBuckets = new int[highestRegionId + 1][INITIAL_BUCKET_CAPACITY];
+        regionSizes = new int[highestRegionId + 1];
+    }
+
+    /**
+     * @return false if the job was already indexed
+     */
+    public boolean add(int jobId, int zone, int type, boolean vacant) {
+        ensureCapacity(jobId);
+        if (positionInZone[jobId] >= 0) {
+            return false;
+        }
+        int[] bucket = zoneBuckets[zone][type];
+        if (bucket == null) {
+            bucket = zoneBuckets[zone][type] = new int[INITIAL_BUCKET_CAPACITY];
+        } else if (zoneSizes[zone][type] == bucket.length) {
+            bucket = zoneBuckets[zone][type] = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        int position = zoneSizes[zone][type]++;
+        bucket[position] = jobId;
+        positionInZone[jobId] = position;
+        zoneOfJob[jobId] = zone;
+        typeOfJob[jobId] = type;
+        if (vacant) {
+            setVacant(jobId);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the job was not indexed
+     */
+    public boolean remove(int jobId) {
+        if (!contains(jobId)) {
+            return false;
+        }
+        setOccupied(jobId);
+        int zone = zoneOfJob[jobId];
+        int type = typeOfJob[jobId];
+        int[] bucket = zoneBuckets[zone][type];
+        int last = --zoneSizes[zone][type];
+        move(bucket, bucket[last], positionInZone[jobId], positionInZone);
+        positionInZone[jobId] = -1;
+        return true;
+    }
+
+    /**
+     * Moves an indexed job into the pool of vacant jobs.
+     * @return false if the job is not indexed or already vacant
+     */
+    public boolean setVacant(int jobId) {
+        if (!contains(jobId) || positionInRegion[jobId] >= 0) {
+            return false;
+        }
+        int zone = zoneOfJob[jobId];
+        int type = typeOfJob[jobId];
+        int[] bucket = zoneBuckets[zone][type];
+        int boundary = zoneVacancies[zone][type]++;
+        swap(bucket, positionInZone[jobId], boundary, positionInZone);
+
+        int region = regionOfZone[zone];
+        if (regionSizes[region] == regionBuckets[region].length) {
+            regionBuckets[region] = Arrays.copyOf(regionBuckets[region], regionBuckets[region].length * 2);
+        }
+        regionBuckets[region][regionSizes[region]] = jobId;
+        positionInRegion[jobId] = regionSizes[region]++;
+        return true;
+    }
+
+    /**
+     * Takes an indexed job out of the pool of vacant jobs.
+     * @return false if the job is not indexed or not vacant
+     */
+    public boolean setOccupied(int jobId) {
+        if (!isVacant(jobId)) {
+            return false;
+        }
+        int zone = zoneOfJob[jobId];
+        int type = typeOfJob[jobId];
+        int boundary = --zoneVacancies[zone][type];
+        swap(zoneBuckets[zone][type], positionInZone[jobId], boundary, positionInZone);
+
+        int region = regionOfZone[zone];
+        int last = --regionSizes[region];
+        move(regionBuckets[region], regionBuckets[region][last], positionInRegion[jobId], positionInRegion);
+        positionInRegion[jobId] = -1;
+        return true;
+    }
+
+    public boolean contains(int jobId) {
+        return jobId >= 0 && jobId < positionInZone.length && positionInZone[jobId] >= 0;
+    }
+
+    public boolean isVacant(int jobId) {
+        return contains(jobId) && positionInRegion[jobId] >= 0;
+    }
+
+    public int getNumberOfJobs(int zone, int type) {
+        return zoneSizes[zone][type];
+    }
+
+    public int getNumberOfVacantJobs(int zone, int type) {
+        return zoneVacancies[zone][type];
+    }
+
+    public int getNumberOfVacantJobsInRegion(int region) {
+        return regionSizes[region];
+    }
+
+    public int[] getVacantJobs(int zone, int type) {
+        int[] bucket = zoneBuckets[zone][type];
+        return bucket == null ? new int[0] : Arrays.copyOf(bucket, zoneVacancies[zone][type]);
+    }
+
+    public int[] getOccupiedJobs(int zone, int type) {
+        int[] bucket = zoneBuckets[zone][type];
+        return bucket == null ? new int[0] : Arrays.copyOfRange(bucket, zoneVacancies[zone][type], zoneSizes[zone][type]);
+    }
+
+    /**
+     * Draws one vacant job of the region uniformly at random. The job stays vacant.
+     * @return the job id or -1 if there is no vacant job in the region
+     */
+    public int sampleVacantJob(int region, Random random) {
+        if (regionSizes[region] == 0) {
+            return -1;
+        }
+        return regionBuckets[region][random.nextInt(regionSizes[region])];
+    }
+
+    private static void swap(int[] bucket, int i, int j, int[] positions) {
+        int a = bucket[i];
+        int b = bucket[j];
+        bucket[i] = b;
+        positions[b] = i;
+        bucket[j] = a;
+        positions[a] = j;
+    }
+
+    private static void move(int[] bucket, int id, int target, int[] positions) {
+        bucket[target] = id;
+        positions[id] = target;
+    }
+
+    private void ensureCapacity(int jobId) {
+        if (jobId >= positionInZone.length) {
+            int oldLength = positionInZone.length;
+            int newLength = Math.max(jobId + 1, oldLength + (oldLength >> 1));
+            zoneOfJob = Arrays.copyOf(zoneOfJob, newLength);
+            typeOfJob = Arrays.copyOf(typeOfJob, newLength);
+            positionInZone = Arrays.copyOf(positionInZone, newLength);
+            positionInRegion = Arrays.copyOf(positionInRegion, newLength);
+            Arrays.fill(positionInZone, oldLength, newLength, -1);
+            Arrays.fill(positionInRegion, oldLength, newLength, -1);
+        }
+    }
+}
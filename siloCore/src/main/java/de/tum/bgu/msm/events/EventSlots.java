@@ -0,0 +1,14 @@
+package de.tum.bgu.msm.events;
+
+/**
+ * A range of slots that may hold an event, e.g. the id range of a {@link StreamingMicroEventModel}.
+ */
+interface EventSlots {
+
+    int size();
+
+    /**
+     * @return the event of the given slot or null if the slot is empty
+     */
+    MicroEvent createEvent(int slot);
+}
@@ -1,11 +1,8 @@
 package de.tum.bgu.msm.events;
 
 import de.tum.bgu.msm.data.GeoData;
-import de.tum.bgu.msm.utils.SiloUtil;
 import org.apache.log4j.Logger;
 
-import java.util.Comparator;
-
 /**
  * Keep track of cases that are undesirable
  * Author: Rolf Moeckel, PB Albuquerque
@@ -20,8 +17,6 @@ public class IssueCounter {
     private static int lackOfDwellingFailedDivorce;
     private static int lackOfDwellingFailedInmigration;
     private static int forcedOutmigrationByDemolition;
-    private static int[] exceededVacantDwellingStorage;
-    private static int[] exceededVacantJobStorage;
     private static int missingJob;
     private static boolean foundIssues = false;
 
@@ -37,15 +32,6 @@ public class IssueCounter {
     }
 
 
-    public static void regionSpecificCounters(GeoData geoData) {
-        final int highestRegionId = geoData.getRegions().keySet().stream().max(Comparator.naturalOrder()).get();
-        exceededVacantDwellingStorage = new int[highestRegionId + 1];
-        exceededVacantJobStorage = new int[highestRegionId + 1];
-        SiloUtil.setArrayToValue(exceededVacantDwellingStorage, 0);
-        SiloUtil.setArrayToValue(exceededVacantJobStorage, 0);
-    }
-
-
     public static void countLackOfDwellingFailedMarriage () {
         lackOfDwellingFailedMarriage++;
         foundIssues = true;
@@ -78,18 +64,6 @@ public class IssueCounter {
     }
 
 
-    public static void countExcessOfVacantDwellings(int region) {
-        exceededVacantDwellingStorage[region]++;
-        foundIssues = true;
-    }
-
-
-    public static void countExcessOfVacantJobs(int region) {
-        exceededVacantJobStorage[region]++;
-        foundIssues = true;
-    }
-
-
     public static boolean didFindIssues() {
         return foundIssues;
     }
@@ -106,22 +80,6 @@ public class IssueCounter {
                 "where a couple wanted to marry (cohabitate) but could not find vacant dwelling.");
         if (forcedOutmigrationByDemolition > 0) logger.warn("  Encountered " + forcedOutmigrationByDemolition + " cases " +
                 "where a household had to outmigrate because its dwelling was demolished and no other vacant dwelling could be found.");
-        if (SiloUtil.getSum(exceededVacantDwellingStorage) > 0) {
-            logger.warn("  Could not store all vacant dwellings in vacDwellingsByRegion[][] for regions:");
-            for (int region: geoData.getRegions().keySet()) {
-                if (exceededVacantDwellingStorage[region] > 0) {
-                    logger.warn("  - Region " + region + ": " + exceededVacantDwellingStorage[region] + " vacant dwellings");
-                }
-            }
-        }
-        if (SiloUtil.getSum(exceededVacantJobStorage) > 0) {
-            logger.warn("  Could not store all vacant jobs in vacantJobsByRegion[][] for regions:");
-            for (int region: geoData.getRegions().keySet()) {
-                if (exceededVacantJobStorage[region] > 0) {
-                    logger.warn("  - Region " + region + ": " + exceededVacantJobStorage[region] + " vacant jobs");
-                }
-            }
-        }
         if (missingJob > 0) {
             logger.warn("  Encountered " + missingJob + " cases where a person should have started a " +
                     "new job to keep constant labor participation rates but could not find a job.");
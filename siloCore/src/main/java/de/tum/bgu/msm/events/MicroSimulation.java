@@ -3,12 +3,18 @@ package de.tum.bgu.msm.events;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
 import de.tum.bgu.msm.container.SiloDataContainer;
+import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.properties.modules.EventRulesProperties;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.data.SummarizeData;
+import de.tum.bgu.msm.utils.LatencyTracker;
 import de.tum.bgu.msm.utils.TimeTracker;
 import org.apache.log4j.Logger;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Generates a series of events in random order
@@ -24,14 +30,40 @@ public final class MicroSimulation {
     private final Map<Class<? extends MicroEvent>, MicroEventModel> models = new LinkedHashMap<>();
 
     private final List<MicroEvent> events = new ArrayList<>();
+    private Iterator<MicroEvent> eventIterator;
     private final TimeTracker timeTracker;
+    private final LatencyTracker latencyTracker;
+    // by event class, the registered model together with the time spent on its events this year
+    private final Map<Class<? extends MicroEvent>, TimedModel> timedModels = new HashMap<>();
+
+    private final boolean parallelExecution;
+    private final int partitions;
+    private final boolean streaming;
+    private final boolean packedQueue;
+    // number of threads processing the partitioned batches, 0 for one thread per batch
+    private final int threads;
 
     public MicroSimulation(TimeTracker timeTracker) {
+        this(timeTracker, Properties.get().main.trackEventLatencies, Properties.get().eventRules, 0);
+    }
+
+    MicroSimulation(TimeTracker timeTracker, boolean trackLatencies, EventRulesProperties eventRules, int threads) {
         this.timeTracker = timeTracker;
+        this.latencyTracker = new LatencyTracker(trackLatencies);
+        this.parallelExecution = eventRules.parallelExecution;
+        this.partitions = Math.max(1, eventRules.parallelPartitions);
+        this.streaming = eventRules.streamingEvents;
+        this.packedQueue = eventRules.packedEventQueue;
+        this.threads = threads;
+        if (parallelExecution && streaming) {
+            LOGGER.warn("Parallel execution splits all events of a year into batches before processing them. " +
+                    "Events are still generated lazily, but the memory savings of streaming generation are lost.");
+        }
     }
 
     public <T extends MicroEvent> void registerModel(Class<T> klass, MicroEventModel<T> model) {
         this.models.put(klass, model);
+        this.timedModels.put(klass, new TimedModel(model));
         LOGGER.info("Registered " + model.getClass().getSimpleName() + " for: " + klass.getSimpleName());
     }
 
@@ -43,37 +75,186 @@ public final class MicroSimulation {
     private void createEvents(int year) {
         LOGGER.info("  Creating events");
         timeTracker.reset();
-        for(@SuppressWarnings("unchecked") MicroEventModel<? extends MicroEvent> model: models.values()) {
-            events.addAll(model.prepareYear(year));
+        if (streaming) {
+            final ShuffledEventIterator iterator = new ShuffledEventIterator(createEventSources(year),
+                    new Random(SiloUtil.getRandomObject().nextLong()));
+            LOGGER.info("  Prepared streams of up to " + iterator.getRemainingSlots() + " events to simulate.");
+            eventIterator = iterator;
+        } else if (packedQueue) {
+            final PackedEventQueue queue = new PackedEventQueue(createEventSources(year));
+            LOGGER.info("  Created queue of up to " + queue.size() + " events to simulate.");
+            LOGGER.info("  Shuffling events...");
+            queue.shuffle(SiloUtil.getRandomObject());
+            eventIterator = queue;
+        } else {
+            for (MicroEventModel<?> model : models.values()) {
+                long start = System.nanoTime();
+                events.addAll(model.prepareYear(year));
+                latencyTracker.record(model.getClass().getSimpleName() + ".prepareYear", System.nanoTime() - start, true);
+            }
+            LOGGER.info("  Created " + events.size() + " events to simulate.");
+            LOGGER.info("  Shuffling events...");
+            Collections.shuffle(events, SiloUtil.getRandomObject());
+            eventIterator = events.iterator();
         }
-        LOGGER.info("  Created " + events.size() + " events to simulate.");
-        LOGGER.info("  Shuffling events...");
-        Collections.shuffle(events, SiloUtil.getRandomObject());
         timeTracker.record("EventCreation");
-        eventCounter.clear();
+    }
+
+    /**
+     * Prepares the event sources of all models. Streaming models only provide their id range,
+     * events of all other models are materialized as usual.
+     */
+    private List<EventSlots> createEventSources(int year) {
+        final List<EventSlots> sources = new ArrayList<>();
+        for (MicroEventModel<?> model : models.values()) {
+            long start = System.nanoTime();
+            if (model instanceof StreamingMicroEventModel) {
+                final StreamingMicroEventModel<? extends MicroEvent> streamingModel = (StreamingMicroEventModel<? extends MicroEvent>) model;
+                final int size = Math.max(streamingModel.prepareIdRange(year) + 1, 0);
+                sources.add(new EventSlots() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public MicroEvent createEvent(int slot) {
+                        return streamingModel.createEvent(slot);
+                    }
+                });
+            } else {
+                final List<? extends MicroEvent> modelEvents = new ArrayList<>(model.prepareYear(year));
+                sources.add(new EventSlots() {
+                    @Override
+                    public int size() {
+                        return modelEvents.size();
+                    }
+
+                    @Override
+                    public MicroEvent createEvent(int slot) {
+                        return modelEvents.get(slot);
+                    }
+                });
+            }
+            latencyTracker.record(model.getClass().getSimpleName() + ".prepareYear", System.nanoTime() - start, true);
+        }
+        return sources;
     }
 
     private void processEvents() {
         LOGGER.info("  Processing events...");
-        for (MicroEvent e: events) {
-            timeTracker.reset();
+        Iterator<MicroEvent> serialEvents = eventIterator;
+        if (parallelExecution) {
+            serialEvents = processPartitionedEvents().iterator();
+        }
+        while (serialEvents.hasNext()) {
+            MicroEvent e = serialEvents.next();
+            long start = System.nanoTime();
             Class<? extends MicroEvent> klass= e.getClass();
+            TimedModel timedModel = timedModels.get(klass);
             //unchecked is justified here, as
             //<T extends Event> void registerModel(Class<T> klass, MicroEventModel<T> model)
             // checks for the right type of model handlers
             @SuppressWarnings("unchecked")
-            boolean success = this.models.get(klass).handleEvent(e);
+            boolean success = timedModel.model.handleEvent(e);
             if(success) {
                 eventCounter.add(e.getClass());
             }
-            timeTracker.record(klass.getSimpleName());
+            long nanos = System.nanoTime() - start;
+            timedModel.nanos += nanos;
+            if (latencyTracker.isEnabled()) {
+                latencyTracker.record(klass.getSimpleName(), nanos, success);
+            }
+        }
+        // summing up nanoseconds avoids that short events are truncated to 0 milliseconds each
+        for (Map.Entry<Class<? extends MicroEvent>, TimedModel> entry : timedModels.entrySet()) {
+            if (entry.getValue().nanos > 0) {
+                timeTracker.recordNanos(entry.getKey().getSimpleName(), entry.getValue().nanos);
+                entry.getValue().nanos = 0;
+            }
         }
     }
 
+    /**
+     * Splits the shuffled events of all {@link PartitionedMicroEventModel}s into a fixed number of batches by
+     * their partition key and processes the batches in parallel. Each batch keeps the shuffled order and draws
+     * from its own random object, seeded in batch order, so results do not depend on thread scheduling or on the
+     * number of threads.
+     * All events of the year are held in the batches and the serial list, so streaming generation does not save
+     * memory in parallel mode.
+     * @return the remaining events, in shuffled order, that have to be processed serially
+     */
+    private List<MicroEvent> processPartitionedEvents() {
+        timeTracker.reset();
+        final List<List<MicroEvent>> batches = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            batches.add(new ArrayList<>());
+        }
+        final List<MicroEvent> serialEvents = new ArrayList<>();
+        int partitionedEvents = 0;
+        while (eventIterator.hasNext()) {
+            MicroEvent e = eventIterator.next();
+            MicroEventModel model = models.get(e.getClass());
+            int key = -1;
+            if (model instanceof PartitionedMicroEventModel) {
+                //unchecked is justified, see processEvents()
+                @SuppressWarnings("unchecked")
+                int partitionKey = ((PartitionedMicroEventModel) model).getPartitionKey(e);
+                key = partitionKey;
+            }
+            if (key < 0) {
+                serialEvents.add(e);
+            } else {
+                batches.get(key % partitions).add(e);
+                partitionedEvents++;
+            }
+        }
+        LOGGER.info("  Processing " + partitionedEvents + " events in " + partitions + " parallel batches...");
+
+        final ConcurrentExecutor executor = ConcurrentExecutor.cachedService();
+        final List<EventBatch> tasks = new ArrayList<>(partitions);
+        for (List<MicroEvent> batch : batches) {
+            tasks.add(new EventBatch(batch));
+        }
+        if (threads <= 0 || threads >= partitions) {
+            for (EventBatch task : tasks) {
+                executor.addTaskToQueue(task);
+            }
+        } else {
+            final AtomicInteger nextBatch = new AtomicInteger();
+            for (int i = 0; i < threads; i++) {
+                executor.addTaskToQueue(() -> {
+                    for (int batch = nextBatch.getAndIncrement(); batch < partitions; batch = nextBatch.getAndIncrement()) {
+                        tasks.get(batch).call();
+                    }
+                    return null;
+                });
+            }
+        }
+        executor.execute();
+        for (EventBatch task : tasks) {
+            eventCounter.addAll(task.counter);
+            latencyTracker.merge(task.latencies);
+        }
+        timeTracker.record("PartitionedEvents");
+        return serialEvents;
+    }
+
+    /**
+     * Counts successful events that were simulated outside of the event loop, such as batched relocations,
+     * so they are reported together with all other events of the year.
+     */
+    public void countSuccessfulEvents(Class<? extends MicroEvent> klass, int count) {
+        eventCounter.add(klass, count);
+    }
+
     public void finishYear(int year, int[] carChangeCounter, int avSwitchCounter, SiloDataContainer dataContainer) {
         for(MicroEventModel model: models.values()) {
+            long start = System.nanoTime();
             model.finishYear(year);
+            latencyTracker.record(model.getClass().getSimpleName() + ".finishYear", System.nanoTime() - start, true);
         }
+        latencyTracker.writeYear(year);
         SummarizeData.resultFile("Count of simulated events");
         LOGGER.info("Simulated " + eventCounter.size() + " successful events in total.");
         for(Class<? extends MicroEvent> event: eventCounter.elementSet()) {
@@ -93,5 +274,50 @@ public final class MicroSimulation {
         SummarizeData.resultFile("SwitchedToAV," + avSwitchCounter);
 
         events.clear();
+        eventIterator = null;
+        eventCounter.clear();
+    }
+
+    private static final class TimedModel {
+
+        private final MicroEventModel model;
+        private long nanos = 0;
+
+        private TimedModel(MicroEventModel model) {
+            this.model = model;
+        }
+    }
+
+    private final class EventBatch extends RandomizableConcurrentFunction {
+
+        private final List<MicroEvent> batch;
+        private final Multiset<Class<? extends MicroEvent>> counter = HashMultiset.create();
+        private final LatencyTracker latencies = new LatencyTracker(latencyTracker.isEnabled());
+
+        private EventBatch(List<MicroEvent> batch) {
+            super(SiloUtil.getRandomObject().nextLong());
+            this.batch = batch;
+        }
+
+        @Override
+        public Object call() {
+            SiloUtil.setThreadLocalRandom(random);
+            try {
+                for (MicroEvent e : batch) {
+                    long start = System.nanoTime();
+                    @SuppressWarnings("unchecked")
+                    boolean success = models.get(e.getClass()).handleEvent(e);
+                    if (success) {
+                        counter.add(e.getClass());
+                    }
+                    if (latencies.isEnabled()) {
+                        latencies.record(e.getClass().getSimpleName(), System.nanoTime() - start, success);
+                    }
+                }
+            } finally {
+                SiloUtil.clearThreadLocalRandom();
+            }
+            return null;
+        }
     }
 }
@@ -0,0 +1,79 @@
+package de.tum.bgu.msm.events;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Event queue that stores every event as a single primitive long, with the index of its
+ * source in the upper and the slot (usually the agent id) in the lower 32 bits. Events are
+ * shuffled in place and only decoded into event objects when they are dispatched.
+ */
+final class PackedEventQueue implements Iterator<MicroEvent> {
+
+    private static final long SLOT_MASK = 0xFFFFFFFFL;
+
+    private final EventSlots[] sources;
+    private final long[] queue;
+    private int position = 0;
+
+    private MicroEvent next;
+
+    PackedEventQueue(List<EventSlots> sources) {
+        this.sources = sources.toArray(new EventSlots[0]);
+        long total = 0;
+        for (EventSlots source : this.sources) {
+            total += source.size();
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many events for a packed event queue: " + total);
+        }
+        queue = new long[(int) total];
+        int index = 0;
+        for (int source = 0; source < this.sources.length; source++) {
+            final long upper = ((long) source) << 32;
+            for (int slot = 0; slot < this.sources[source].size(); slot++) {
+                queue[index++] = upper | slot;
+            }
+        }
+    }
+
+    /**
+     * @return the number of queued slots. This is an upper bound for the number of events.
+     */
+    int size() {
+        return queue.length;
+    }
+
+    /**
+     * Fisher-Yates shuffle of the not yet dispatched part of the queue
+     */
+    void shuffle(Random random) {
+        for (int i = queue.length - 1; i > position; i--) {
+            int j = position + random.nextInt(i - position + 1);
+            long tmp = queue[i];
+            queue[i] = queue[j];
+            queue[j] = tmp;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && position < queue.length) {
+            final long packed = queue[position++];
+            next = sources[(int) (packed >>> 32)].createEvent((int) (packed & SLOT_MASK));
+        }
+        return next != null;
+    }
+
+    @Override
+    public MicroEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        MicroEvent event = next;
+        next = null;
+        return event;
+    }
+}
@@ -0,0 +1,18 @@
+package de.tum.bgu.msm.events;
+
+/**
+ * Event model whose events may be processed in parallel to each other as long as they touch
+ * disjoint data. Events with the same partition key are always handled in their shuffled order on
+ * one thread, events with different keys may be handled concurrently.
+ * Models that modify data shared across households (dwelling market, job market, new ids, ...)
+ * must not implement this interface and are processed in the serialized phase instead.
+ */
+public interface PartitionedMicroEventModel<T extends MicroEvent> extends MicroEventModel<T> {
+
+    /**
+     * @param event the event to be handled
+     * @return a key identifying the data the event modifies, e.g. the id of the household the person lives in.
+     * Negative values signal that the event has to be processed in the serialized phase.
+     */
+    int getPartitionKey(T event);
+}
@@ -0,0 +1,53 @@
+package de.tum.bgu.msm.events;
+
+import java.util.Random;
+
+/**
+ * Pseudo-random permutation of the indices [0, size) that is evaluated on the fly and
+ * therefore needs constant memory. Uses a random bijection on the next power of two
+ * (multiply-add and xor-shift rounds) and cycle walking to stay within the range.
+ */
+final class RandomPermutation {
+
+    private static final int ROUNDS = 3;
+
+    private final int size;
+    private final int mask;
+    private final int shift;
+    private final int[] multipliers = new int[ROUNDS];
+    private final int[] increments = new int[ROUNDS];
+
+    RandomPermutation(int size, Random random) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size of permutation must not be negative: " + size);
+        }
+        this.size = size;
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(size - 1, 0));
+        this.mask = bits == 32 ? -1 : (1 << bits) - 1;
+        this.shift = Math.max(1, (bits + 1) / 2);
+        for (int i = 0; i < ROUNDS; i++) {
+            // odd multipliers make the multiplication a bijection modulo a power of two
+            multipliers[i] = random.nextInt() | 1;
+            increments[i] = random.nextInt();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index position in the permutation, 0 <= index < size
+     * @return the permuted index at this position
+     */
+    int get(int index) {
+        int x = index;
+        do {
+            for (int i = 0; i < ROUNDS; i++) {
+                x = (x * multipliers[i] + increments[i]) & mask;
+                x ^= x >>> shift;
+            }
+        } while (x >= size);
+        return x;
+    }
+}
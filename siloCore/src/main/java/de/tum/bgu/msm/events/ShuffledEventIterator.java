@@ -0,0 +1,70 @@
+package de.tum.bgu.msm.events;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Streams the events of several sources in a randomly interleaved order. Every source is walked
+ * along its own {@link RandomPermutation}, the next source is drawn proportionally to its remaining
+ * slots. The interleaving of sources is uniform, but the order within a source is only pseudo-random:
+ * the permutation is a few rounds of a hash bijection, which mixes well but cannot produce every
+ * permutation like {@link java.util.Collections#shuffle(List, Random)} does.
+ * Memory only depends on the number of sources, not on the number of events.
+ */
+final class ShuffledEventIterator implements Iterator<MicroEvent> {
+
+    private final EventSlots[] sources;
+    private final RandomPermutation[] permutations;
+    private final int[] positions;
+    private final Random random;
+    private long remaining = 0;
+
+    private MicroEvent next;
+
+    ShuffledEventIterator(List<EventSlots> sources, Random random) {
+        this.sources = sources.toArray(new EventSlots[0]);
+        this.permutations = new RandomPermutation[this.sources.length];
+        this.positions = new int[this.sources.length];
+        this.random = random;
+        for (int i = 0; i < this.sources.length; i++) {
+            permutations[i] = new RandomPermutation(this.sources[i].size(), random);
+            remaining += this.sources[i].size();
+        }
+    }
+
+    /**
+     * @return the number of slots not visited yet. This is an upper bound for the remaining events.
+     */
+    long getRemainingSlots() {
+        return remaining;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && remaining > 0) {
+            long selected = (long) (random.nextDouble() * remaining);
+            int source = 0;
+            int left = sources[source].size() - positions[source];
+            while (selected >= left) {
+                selected -= left;
+                source++;
+                left = sources[source].size() - positions[source];
+            }
+            next = sources[source].createEvent(permutations[source].get(positions[source]++));
+            remaining--;
+        }
+        return next != null;
+    }
+
+    @Override
+    public MicroEvent next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        MicroEvent event = next;
+        next = null;
+        return event;
+    }
+}
@@ -0,0 +1,44 @@
+package de.tum.bgu.msm.events;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Event model that creates its events lazily from a range of agent ids instead of materializing
+ * one event object per agent in {@link #prepareYear(int)}.
+ */
+public interface StreamingMicroEventModel<T extends MicroEvent> extends MicroEventModel<T> {
+
+    /**
+     * Materializes the events of the id range, so both ways of generating events always agree.
+     */
+    @Override
+    default Collection<T> prepareYear(int year) {
+        final int highestId = prepareIdRange(year);
+        final List<T> events = new ArrayList<>();
+        for (int id = 0; id <= highestId; id++) {
+            final T event = createEvent(id);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Perform model internal preparations for the current year, but only return the range of ids events
+     * may be created for.
+     * @param year  the current starting year for which events shall be created
+     * @return the highest id an event may be created for in this year. Ids start at 0.
+     * Negative values signal that no events are created.
+     */
+    int prepareIdRange(int year);
+
+    /**
+     * Creates the event for the given id.
+     * @param id an id within the range returned by {@link #prepareIdRange(int)}
+     * @return the event or null if there is no agent with this id (anymore).
+     */
+    T createEvent(int id);
+}
@@ -6,20 +6,36 @@ import java.io.Reader;
 
 public class BirthJSCalculator extends JavaScriptCalculator <Double> {
 
+    private static final int MAX_TABULATED_AGE = 100;
+    private static final int MAX_TABULATED_CHILDREN = 10;
+
     private float scaler;
 
+    // script is evaluated once for every age and number of children, later calls are served from this table
+    private final double[][] probabilityByAgeAndChildren = new double[MAX_TABULATED_AGE + 1][MAX_TABULATED_CHILDREN + 1];
+    private final double probabilityForGirl;
+
 
     public BirthJSCalculator(Reader reader, float scaler) {
         super(reader);
         this.scaler = scaler;
+        for (int age = 0; age <= MAX_TABULATED_AGE; age++) {
+            for (int children = 0; children <= MAX_TABULATED_CHILDREN; children++) {
+                probabilityByAgeAndChildren[age][children] = super.calculate("calculateBirthProbability", age, children, scaler);
+            }
+        }
+        probabilityForGirl = super.calculate("probabilityForAGirl");
     }
 
     public double calculateBirthProbability(int personAge, int numberOfChildren) {
+        if (personAge >= 0 && personAge <= MAX_TABULATED_AGE && numberOfChildren >= 0 && numberOfChildren <= MAX_TABULATED_CHILDREN) {
+            return probabilityByAgeAndChildren[personAge][numberOfChildren];
+        }
         return super.calculate("calculateBirthProbability", personAge, numberOfChildren, scaler);
     }
 
     public double getProbabilityForGirl() {
-        return super.calculate("probabilityForAGirl");
+        return probabilityForGirl;
     }
 
-}
\ No newline at end of file
+}
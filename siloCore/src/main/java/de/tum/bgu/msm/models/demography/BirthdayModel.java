@@ -3,31 +3,33 @@ package de.tum.bgu.msm.models.demography;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.person.Person;
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.PartitionedMicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.person.BirthDayEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.properties.Properties;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
-public class BirthdayModel extends AbstractModel implements MicroEventModel<BirthDayEvent>{
+public class BirthdayModel extends AbstractModel implements PartitionedMicroEventModel<BirthDayEvent>,
+        StreamingMicroEventModel<BirthDayEvent> {
 
     public BirthdayModel(SiloDataContainer dataContainer) {
         super(dataContainer);
     }
 
     @Override
-    public Collection<BirthDayEvent> prepareYear(int year) {
-        List<BirthDayEvent> events = new ArrayList<>();
-        for (Person per : dataContainer.getHouseholdData().getPersons()) {
-            final int id = per.getId();
-            if(Properties.get().eventRules.birthday) {
-                events.add(new BirthDayEvent(id));
-            }
+    public int prepareIdRange(int year) {
+        if(!Properties.get().eventRules.birthday) {
+            return -1;
+        }
+        return dataContainer.getHouseholdData().getHighestPersonIdInUse();
+    }
+
+    @Override
+    public BirthDayEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getPersonFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new BirthDayEvent(id);
     }
 
     @Override
@@ -35,6 +37,15 @@ public class BirthdayModel extends AbstractModel implements MicroEventModel<Birt
         return checkBirthday(event);
     }
 
+    @Override
+    public int getPartitionKey(BirthDayEvent event) {
+        Person per = dataContainer.getHouseholdData().getPersonFromId(event.getPersonId());
+        if (per == null || per.getHousehold() == null) {
+            return -1;
+        }
+        return per.getHousehold().getId();
+    }
+
     @Override
     public void finishYear(int year) {
 
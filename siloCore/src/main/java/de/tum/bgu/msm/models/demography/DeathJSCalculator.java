@@ -7,12 +7,25 @@ import java.io.Reader;
 
 public class DeathJSCalculator extends JavaScriptCalculator <Double> {
 
+    private static final int MAX_TABULATED_AGE = 100;
+
+    // script is evaluated once for every age and gender, later calls are served from this table
+    private final double[][] probabilityByAgeAndGender = new double[MAX_TABULATED_AGE + 1][Gender.values().length];
+
     public DeathJSCalculator (Reader reader) {
         super(reader);
+        for (int age = 0; age <= MAX_TABULATED_AGE; age++) {
+            for (Gender gender : Gender.values()) {
+                probabilityByAgeAndGender[age][gender.ordinal()] = super.calculate("calculateDeathProbability", age, gender);
+            }
+        }
     }
 
     public double calculateDeathProbability(int personAge, Gender personSex) {
+        if (personAge >= 0 && personAge <= MAX_TABULATED_AGE) {
+            return probabilityByAgeAndGender[personAge][personSex.ordinal()];
+        }
         return super.calculate("calculateDeathProbability", personAge, personSex);
     }
 
-}
\ No newline at end of file
+}
@@ -8,23 +8,20 @@ import de.tum.bgu.msm.data.HouseholdDataManager;
 import de.tum.bgu.msm.data.household.HouseholdUtil;
 import de.tum.bgu.msm.data.person.Person;
 import de.tum.bgu.msm.data.person.PersonRole;
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.person.DeathEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.properties.Properties;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 /**
  * @author Greg Erhardt, Rolf Moeckel
  * Created on Dec 2, 2009
  * Revised on Jan 19, 2018
  */
-public class DeathModel extends AbstractModel implements MicroEventModel<DeathEvent> {
+public class DeathModel extends AbstractModel implements StreamingMicroEventModel<DeathEvent> {
 
     private DeathJSCalculator calculator;
 
@@ -63,12 +60,16 @@ public class DeathModel extends AbstractModel implements MicroEventModel<DeathEv
     }
 
     @Override
-    public Collection<DeathEvent> prepareYear(int year) {
-        final List<DeathEvent> events = new ArrayList<>();
-        for (Person person : dataContainer.getHouseholdData().getPersons()) {
-            events.add(new DeathEvent(person.getId()));
+    public int prepareIdRange(int year) {
+        return dataContainer.getHouseholdData().getHighestPersonIdInUse();
+    }
+
+    @Override
+    public DeathEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getPersonFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new DeathEvent(id);
     }
 
     boolean die(Person person) {
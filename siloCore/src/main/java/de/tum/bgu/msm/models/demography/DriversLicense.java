@@ -3,15 +3,13 @@ package de.tum.bgu.msm.models.demography;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.person.Person;
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.PartitionedMicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.person.LicenseEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 /**
  * Simulates if someone obtains a drivers license
@@ -19,7 +17,8 @@ import java.util.List;
  * Created on 13 October 2017 in Cape Town, South Africa
  **/
 
-public class DriversLicense extends AbstractModel implements MicroEventModel<LicenseEvent> {
+public class DriversLicense extends AbstractModel implements PartitionedMicroEventModel<LicenseEvent>,
+        StreamingMicroEventModel<LicenseEvent> {
 
     private LicenseJSCalculator calculator;
 
@@ -34,12 +33,16 @@ public class DriversLicense extends AbstractModel implements MicroEventModel<Lic
     }
 
     @Override
-    public Collection<LicenseEvent> prepareYear(int year) {
-        final List<LicenseEvent> events = new ArrayList<>();
-        for (Person person : dataContainer.getHouseholdData().getPersons()) {
-            events.add(new LicenseEvent(person.getId()));
+    public int prepareIdRange(int year) {
+        return dataContainer.getHouseholdData().getHighestPersonIdInUse();
+    }
+
+    @Override
+    public LicenseEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getPersonFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new LicenseEvent(id);
     }
 
     @Override
@@ -55,6 +58,15 @@ public class DriversLicense extends AbstractModel implements MicroEventModel<Lic
         return false;
     }
 
+    @Override
+    public int getPartitionKey(LicenseEvent event) {
+        Person pp = dataContainer.getHouseholdData().getPersonFromId(event.getPersonId());
+        if (pp == null || pp.getHousehold() == null) {
+            return -1;
+        }
+        return pp.getHousehold().getId();
+    }
+
     @Override
     public void finishYear(int year) {
     }
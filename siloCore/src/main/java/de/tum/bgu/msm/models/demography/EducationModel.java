@@ -1,7 +1,7 @@
 package de.tum.bgu.msm.models.demography;
 
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.person.EducationEvent;
 
-public interface EducationModel extends MicroEventModel<EducationEvent> {
+public interface EducationModel extends StreamingMicroEventModel<EducationEvent> {
 }
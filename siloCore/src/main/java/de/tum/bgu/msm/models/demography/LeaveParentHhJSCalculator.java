@@ -7,11 +7,17 @@ import java.io.Reader;
 
 public class LeaveParentHhJSCalculator extends JavaScriptCalculator<Double> {
 
+    // script is evaluated once for every person type, later calls are served from this table
+    private final double[] probabilityByType = new double[PersonType.values().length];
+
     public LeaveParentHhJSCalculator (Reader reader) {
         super(reader);
+        for (PersonType type : PersonType.values()) {
+            probabilityByType[type.ordinal()] = super.calculate("calculateLeaveParentsProbability", type);
+        }
     }
 
     public double calculateLeaveParentsProbability(PersonType type) {
-        return super.calculate("calculateLeaveParentsProbability", type);
+        return probabilityByType[type.ordinal()];
     }
 }
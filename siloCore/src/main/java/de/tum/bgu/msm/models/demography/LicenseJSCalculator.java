@@ -10,15 +10,23 @@ import java.io.Reader;
  */
 public class LicenseJSCalculator extends JavaScriptCalculator<Double> {
 
+    // scripts are evaluated once for every person type, later calls are served from these tables
+    private final double[] createProbabilityByType = new double[PersonType.values().length];
+    private final double[] changeProbabilityByType = new double[PersonType.values().length];
+
     public LicenseJSCalculator(Reader reader) {
         super(reader);
+        for (PersonType type : PersonType.values()) {
+            createProbabilityByType[type.ordinal()] = super.calculate("calculateCreateDriversLicenseProbability", type);
+            changeProbabilityByType[type.ordinal()] = super.calculate("calculateChangeDriversLicenseProbability", type);
+        }
     }
 
     public double calculateCreateDriversLicenseProbability(PersonType type) {
-        return super.calculate("calculateCreateDriversLicenseProbability", type);
+        return createProbabilityByType[type.ordinal()];
     }
 
     public double calculateChangeDriversLicenseProbability(PersonType type) {
-        return super.calculate("calculateChangeDriversLicenseProbability", type);
+        return changeProbabilityByType[type.ordinal()];
     }
 }
@@ -1,6 +1,7 @@
 package de.tum.bgu.msm.models.demography;
 
 import de.tum.bgu.msm.data.person.Person;
+import de.tum.bgu.msm.data.person.PersonType;
 import de.tum.bgu.msm.util.js.JavaScriptCalculator;
 
 import java.io.Reader;
@@ -9,9 +10,16 @@ public class MarryDivorceJSCalculator extends JavaScriptCalculator<Double> {
 
     private final double scale;
 
+    // divorce script is evaluated once for every person type, later calls are served from this table.
+    // Marriage probabilities depend on the whole person and are still evaluated by the script.
+    private final double[] divorceProbabilityByType = new double[PersonType.values().length];
+
     public MarryDivorceJSCalculator(Reader reader, double scale) {
         super(reader);
         this.scale = scale;
+        for (PersonType type : PersonType.values()) {
+            divorceProbabilityByType[type.ordinal()] = super.calculate("calculateDivorceProbability", type.ordinal());
+        }
     }
 
     public double calculateMarriageProbability(Person person) {
@@ -19,6 +27,9 @@ public class MarryDivorceJSCalculator extends JavaScriptCalculator<Double> {
     }
 
     public double calculateDivorceProbability (int personType) {
+        if (personType >= 0 && personType < divorceProbabilityByType.length) {
+            return divorceProbabilityByType[personType];
+        }
         return super.calculate("calculateDivorceProbability", personType);
     }
 }
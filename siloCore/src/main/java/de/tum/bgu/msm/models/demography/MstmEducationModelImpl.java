@@ -7,10 +7,6 @@ import de.tum.bgu.msm.events.MicroEventModel;
 import de.tum.bgu.msm.events.impls.person.EducationEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
  * Simulates if someone changes school
  * Author: Rolf Moeckel, TUM and Ana Moreno, TUM
@@ -37,12 +33,16 @@ public class MstmEducationModelImpl extends AbstractModel implements EducationMo
     public void finishYear(int year) {}
 
     @Override
-    public Collection<EducationEvent> prepareYear(int year) {
-        final List<EducationEvent> events = new ArrayList<>();
-        for(Person person: dataContainer.getHouseholdData().getPersons()) {
-            events.add(new EducationEvent(person.getId()));
+    public int prepareIdRange(int year) {
+        return dataContainer.getHouseholdData().getHighestPersonIdInUse();
+    }
+
+    @Override
+    public EducationEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getPersonFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new EducationEvent(id);
     }
 
     // todo: Implement logical rules how students change from one school type to another or graduate from school/university
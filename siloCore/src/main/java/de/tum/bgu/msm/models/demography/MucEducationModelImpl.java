@@ -10,10 +10,6 @@ import de.tum.bgu.msm.data.school.School;
 import de.tum.bgu.msm.events.impls.person.EducationEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-
 /**
  * Simulates if someone changes school
  * Author: Rolf Moeckel, TUM and Ana Moreno, TUM
@@ -80,13 +76,16 @@ public class MucEducationModelImpl extends AbstractModel implements EducationMod
     public void finishYear(int year) {}
 
     @Override
-    public Collection<EducationEvent> prepareYear(int year) {
-        //TODO:
-        final List<EducationEvent> events = new ArrayList<>();
-        for(Person person: dataContainer.getHouseholdData().getPersons()) {
-            events.add(new EducationEvent(person.getId()));
+    public int prepareIdRange(int year) {
+        return dataContainer.getHouseholdData().getHighestPersonIdInUse();
+    }
+
+    @Override
+    public EducationEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getPersonFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new EducationEvent(id);
     }
 
 
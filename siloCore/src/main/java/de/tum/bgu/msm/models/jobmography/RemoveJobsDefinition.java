@@ -6,15 +6,13 @@ import de.tum.bgu.msm.data.Zone;
 import de.tum.bgu.msm.data.job.Job;
 import de.tum.bgu.msm.data.person.Person;
 
-import java.util.List;
-
 public class RemoveJobsDefinition extends EmploymentChangeDefinition {
 
-    private final List<Integer> vacantJobs;
-    private final List<Integer> occupiedJobs;
+    private final int[] vacantJobs;
+    private final int[] occupiedJobs;
 
-    public RemoveJobsDefinition(Zone zone, int change, String jobType, List<Integer> vacantJobs,
-                                List<Integer> occupiedJobs, SiloDataContainer dataContainer) {
+    public RemoveJobsDefinition(Zone zone, int change, String jobType, int[] vacantJobs,
+                                int[] occupiedJobs, SiloDataContainer dataContainer) {
         super(zone, change, jobType, dataContainer);
         this.vacantJobs = vacantJobs;
         this.occupiedJobs = occupiedJobs;
@@ -33,7 +31,10 @@ public class RemoveJobsDefinition extends EmploymentChangeDefinition {
     }
 
     private void removeVacantJobs() {
-        for (Integer job : vacantJobs) {
+        for (int job : vacantJobs) {
+            if (changes == 0) {
+                break;
+            }
             removeJob(job);
             if (job == SiloUtil.trackJj) {
                 SiloUtil.trackWriter.println("Vacant job " + job +
@@ -44,7 +45,10 @@ public class RemoveJobsDefinition extends EmploymentChangeDefinition {
     }
 
     private void removeOccupiedJobs() {
-        for (Integer occupiedJob : occupiedJobs) {
+        for (int occupiedJob : occupiedJobs) {
+            if (changes == 0) {
+                break;
+            }
             firePerson(occupiedJob);
             removeJob(occupiedJob);
             if (occupiedJob == SiloUtil.trackJj) SiloUtil.trackWriter.println("Previously occupied job " +
@@ -53,13 +57,13 @@ public class RemoveJobsDefinition extends EmploymentChangeDefinition {
         }
     }
 
-    private void firePerson(Integer occupiedJob) {
+    private void firePerson(int occupiedJob) {
         Job jobToBeRemoved = jobDataManager.getJobFromId(occupiedJob);
         Person person = householdDataManager.getPersonFromId(jobToBeRemoved.getWorkerId());
         jobDataManager.quitJob(false, person);
     }
 
-    private synchronized void removeJob(int job) {
+    private void removeJob(int job) {
         this.jobDataManager.removeJob(job);
     }
 }
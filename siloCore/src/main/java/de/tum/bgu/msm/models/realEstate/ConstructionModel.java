@@ -8,13 +8,13 @@ import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
 import de.tum.bgu.msm.data.dwelling.DwellingFactory;
 import de.tum.bgu.msm.data.dwelling.DwellingType;
-import de.tum.bgu.msm.data.household.HouseholdType;
 import de.tum.bgu.msm.events.MicroEventModel;
 import de.tum.bgu.msm.events.impls.realEstate.ConstructionEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.models.relocation.MovesModelI;
 import de.tum.bgu.msm.properties.Properties;
 import de.tum.bgu.msm.utils.SiloUtil;
+import de.tum.bgu.msm.utils.CalculatorPool;
 import org.apache.log4j.Logger;
 
 import java.io.InputStreamReader;
@@ -38,7 +38,7 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
     private final DwellingFactory factory;
     private final Accessibility accessibility;
 
-    private final ConstructionLocationJSCalculator constructionLocationJSCalculator;
+    private final CalculatorPool<ConstructionLocationJSCalculator> constructionLocationJSCalculator;
     private float betaForZoneChoice;
     private float priceIncreaseForNewDwelling;
     private boolean makeSomeNewDdAffordable;
@@ -56,7 +56,7 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
         this.moves = moves;
         this.factory = factory;
         Reader reader = new InputStreamReader(this.getClass().getResourceAsStream("ConstructionLocationCalc"));
-        constructionLocationJSCalculator = new ConstructionLocationJSCalculator(reader);
+        constructionLocationJSCalculator = new CalculatorPool<>(reader, ConstructionLocationJSCalculator::new);
         setupConstructionModel();
         setupEvaluationOfZones();
     }
@@ -127,7 +127,8 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
                     if (avePrice == 0)
                         LOGGER.error("Ave. price is 0. Replaced with region-wide average price for this dwelling type.");
                     // evaluate utility for building DwellingType dt where the average price of this dwelling type in this zone is avePrice
-                    util[zone] = constructionLocationJSCalculator.calculateConstructionProbability(dt, avePrice, accessibility.getAutoAccessibilityForZone(zone));
+                    final float price = avePrice;
+                    util[zone] = constructionLocationJSCalculator.calculate(calculator -> calculator.calculateConstructionProbability(dt, price, accessibility.getAutoAccessibilityForZone(zone)));
                 }
                 double[] prob = new double[SiloUtil.getHighestVal(zonesInThisRegion) + 1];
                 // walk through every dwelling to be built
@@ -198,8 +199,7 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
         RealEstateDataManager realEstate = dataContainer.getRealEstateData();
         Dwelling dd = event.getDwelling();
         realEstate.addDwelling(dd);
-        EnumMap<HouseholdType, Double> utilities = moves.updateUtilitiesOfVacantDwelling(dd);
-        dd.setUtilitiesByHouseholdType(utilities);
+        moves.updateUtilitiesOfVacantDwelling(dd);
 
         if (Properties.get().main.useMicrolocation) {
             Coordinate coordinate = dataContainer.getGeoData().getZones().get(dd.getZoneId()).getRandomCoordinate();
@@ -223,27 +223,9 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
 
         RealEstateDataManager realEstate = dataContainer.getRealEstateData();
         List<DwellingType> dwellingTypes = realEstate.getDwellingTypes();
-
-        final int highestZoneId = geoData.getZones().keySet().stream().max(Comparator.naturalOrder()).get();
-        float[][] avePrice = new float[dwellingTypes.size()][highestZoneId + 1];
-        int[][] counter = new int[dwellingTypes.size()][highestZoneId + 1];
-        for (Dwelling dd : realEstate.getDwellings()) {
-            int dt = dwellingTypes.indexOf(dd.getType());
-            int zone = geoData.getZones().get(dd.getZoneId()).getZoneId();
-            counter[dt][zone]++;
-            avePrice[dt][zone] += dd.getPrice();
-        }
-        for (DwellingType dt : dwellingTypes) {
-            int dto = dwellingTypes.indexOf(dt);
-            float[] avePriceThisType = new float[highestZoneId + 1];
-            for (int zone : geoData.getZones().keySet()) {
-                if (counter[dto][zone] > 0) {
-                    avePriceThisType[zone] = avePrice[dto][zone] / counter[dto][zone];
-                } else {
-                    avePriceThisType[zone] = 0;
-                }
-            }
-            float[] scaledAvePriceThisDwellingType = SiloUtil.scaleArray(avePriceThisType, scaler);
+        float[][] avePrice = realEstate.getAveragePriceByTypeAndZone();
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            float[] scaledAvePriceThisDwellingType = SiloUtil.scaleArray(avePrice[dto], scaler);
             for (int zones : geoData.getZones().keySet()) {
                 avePrice[dto][zones] = scaledAvePriceThisDwellingType[zones];
             }
@@ -256,26 +238,9 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
 
         RealEstateDataManager realEstate = dataContainer.getRealEstateData();
         List<DwellingType> dwellingTypes = realEstate.getDwellingTypes();
-        final int highestRegionId = geoData.getRegions().keySet().stream().max(Comparator.naturalOrder()).get();
-        float[][] avePrice = new float[dwellingTypes.size()][highestRegionId + 1];
-        int[][] counter = new int[dwellingTypes.size()][highestRegionId + 1];
-        for (Dwelling dd : realEstate.getDwellings()) {
-            int dt =  dwellingTypes.indexOf(dd.getType());
-            int region = geoData.getZones().get(dd.getZoneId()).getRegion().getId();
-            counter[dt][region]++;
-            avePrice[dt][region] += dd.getPrice();
-        }
-        for (DwellingType dt : dwellingTypes) {
-            int dto = dwellingTypes.indexOf(dt);
-            float[] avePriceThisType = new float[highestRegionId + 1];
-            for (int region : geoData.getRegions().keySet()) {
-                if (counter[dto][region] > 0) {
-                    avePriceThisType[region] = avePrice[dto][region] / counter[dto][region];
-                } else {
-                    avePriceThisType[region] = 0;
-                }
-            }
-            float[] scaledAvePriceThisDwellingType = SiloUtil.scaleArray(avePriceThisType, scaler);
+        float[][] avePrice = realEstate.getAveragePriceByTypeAndRegion();
+        for (int dto = 0; dto < dwellingTypes.size(); dto++) {
+            float[] scaledAvePriceThisDwellingType = SiloUtil.scaleArray(avePrice[dto], scaler);
             for (int region : geoData.getRegions().keySet()) {
                 avePrice[dto][region] = scaledAvePriceThisDwellingType[region];
             }
@@ -286,26 +251,8 @@ public class ConstructionModel extends AbstractModel implements MicroEventModel<
 
     private float[][] calculateAverageSizeByTypeAndByRegion() {
         // calculate average housing size by dwelling type and region
-        final int highestRegionId = geoData.getRegions().keySet().stream().max(Comparator.naturalOrder()).get();
         List<DwellingType> dwellingTypes = dataContainer.getRealEstateData().getDwellingTypes();
-        float[][] aveSize = new float[dwellingTypes.size()][highestRegionId + 1];
-        int[][] counter = new int[dwellingTypes.size()][highestRegionId + 1];
-        for (Dwelling dd : dataContainer.getRealEstateData().getDwellings()) {
-            int dt = dwellingTypes.indexOf(dd.getType());
-            int region = geoData.getZones().get(dd.getZoneId()).getRegion().getId();
-            counter[dt][region]++;
-            aveSize[dt][region] += dd.getBedrooms();
-        }
-        for (DwellingType dt : dwellingTypes) {
-            int dto = dwellingTypes.indexOf(dt);
-            for (int region : geoData.getRegions().keySet()) {
-                if (counter[dto][region] > 0) {
-                    aveSize[dto][region] = aveSize[dto][region] / counter[dto][region];
-                } else {
-                    aveSize[dto][region] = 0;
-                }
-            }
-        }
+        float[][] aveSize = dataContainer.getRealEstateData().getAverageSizeByTypeAndRegion();
         // catch if one region should not have a given dwelling type (should almost never happen, but theoretically possible)
         float[] totalAveSizeByType = new float[dwellingTypes.size()];
         for (DwellingType dt : dwellingTypes) {
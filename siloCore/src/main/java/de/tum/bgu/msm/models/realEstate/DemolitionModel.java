@@ -3,10 +3,11 @@ package de.tum.bgu.msm.models.realEstate;
 import de.tum.bgu.msm.Implementation;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
+import de.tum.bgu.msm.data.RealEstateDataManager;
 import de.tum.bgu.msm.data.household.Household;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
 import de.tum.bgu.msm.events.IssueCounter;
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.realEstate.DemolitionEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.models.relocation.InOutMigration;
@@ -15,9 +16,6 @@ import de.tum.bgu.msm.properties.Properties;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 /**
  * Simulates demolition of dwellings
@@ -25,7 +23,7 @@ import java.util.List;
  * Created on 8 January 2010 in Rhede
  **/
 
-public class DemolitionModel extends AbstractModel implements MicroEventModel<DemolitionEvent> {
+public class DemolitionModel extends AbstractModel implements StreamingMicroEventModel<DemolitionEvent> {
 
     private final DemolitionJSCalculator calculator;
     private final MovesModelI moves;
@@ -48,13 +46,17 @@ public class DemolitionModel extends AbstractModel implements MicroEventModel<De
     }
 
     @Override
-    public Collection<DemolitionEvent> prepareYear(int year) {
+    public int prepareIdRange(int year) {
         currentYear = year;
-        final List<DemolitionEvent> events = new ArrayList<>();
-        for (Dwelling dwelling : dataContainer.getRealEstateData().getDwellings()) {
-            events.add(new DemolitionEvent(dwelling.getId()));
+        return RealEstateDataManager.getHighestDwellingIdInUse();
+    }
+
+    @Override
+    public DemolitionEvent createEvent(int id) {
+        if (dataContainer.getRealEstateData().getDwelling(id) == null) {
+            return null;
         }
-        return events;
+        return new DemolitionEvent(id);
     }
 
     @Override
@@ -82,6 +84,7 @@ public class DemolitionModel extends AbstractModel implements MicroEventModel<De
             dataContainer.getRealEstateData().removeDwellingFromVacancyList(dwellingId);
         }
         dataContainer.getRealEstateData().removeDwelling(dwellingId);
+        moves.removeUtilitiesOfDwelling(dwellingId);
         if (dwellingId == SiloUtil.trackDd) {
             SiloUtil.trackWriter.println("Dwelling " +
                     dwellingId + " was demolished.");
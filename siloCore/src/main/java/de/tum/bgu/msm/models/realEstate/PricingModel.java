@@ -96,7 +96,7 @@ public final class PricingModel extends AbstractModel {
                 SiloUtil.trackWriter.println("The monthly costs of dwelling " +
                         dd.getId() + " was changed from " + currentPrice + " to " + newPrice + " (in 2000$).");
             }
-            dd.setPrice((int) (newPrice + 0.5));
+            dataContainer.getRealEstateData().setDwellingPrice(dd, (int) (newPrice + 0.5));
             cnt[dto]++;
             sumOfPrices[dto] += newPrice;
 
@@ -4,16 +4,13 @@ import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.RealEstateDataManager;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
-import de.tum.bgu.msm.events.MicroEventModel;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.realEstate.RenovationEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.properties.Properties;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 
 /**
  * Simulates renovation and deterioration of dwellings
@@ -21,7 +18,7 @@ import java.util.List;
  * Created on 7 January 2010 in Rhede
  **/
 
-public class RenovationModel extends AbstractModel implements MicroEventModel<RenovationEvent> {
+public class RenovationModel extends AbstractModel implements StreamingMicroEventModel<RenovationEvent> {
 
     private double[][] renovationProbability;
 
@@ -46,12 +43,16 @@ public class RenovationModel extends AbstractModel implements MicroEventModel<Re
     }
 
     @Override
-    public Collection<RenovationEvent> prepareYear(int year) {
-        final List<RenovationEvent> events = new ArrayList<>();
-        for (Dwelling dwelling : dataContainer.getRealEstateData().getDwellings()) {
-            events.add(new RenovationEvent(dwelling.getId()));
+    public int prepareIdRange(int year) {
+        return RealEstateDataManager.getHighestDwellingIdInUse();
+    }
+
+    @Override
+    public RenovationEvent createEvent(int id) {
+        if (dataContainer.getRealEstateData().getDwelling(id) == null) {
+            return null;
         }
-        return events;
+        return new RenovationEvent(id);
     }
 
     @Override
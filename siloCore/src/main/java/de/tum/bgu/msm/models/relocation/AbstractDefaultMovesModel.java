@@ -1,6 +1,7 @@
 package de.tum.bgu.msm.models.relocation;
 
 import de.tum.bgu.msm.utils.SiloUtil;
+import de.tum.bgu.msm.utils.CalculatorPool;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.*;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
@@ -8,20 +9,25 @@ import de.tum.bgu.msm.data.household.Household;
 import de.tum.bgu.msm.data.household.HouseholdType;
 import de.tum.bgu.msm.data.household.HouseholdUtil;
 import de.tum.bgu.msm.data.household.IncomeCategory;
+import de.tum.bgu.msm.events.StreamingMicroEventModel;
 import de.tum.bgu.msm.events.impls.household.MoveEvent;
 import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.utils.RegionalTravelTimes;
 import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.TransportMode;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
-public abstract class AbstractDefaultMovesModel extends AbstractModel implements MovesModelI {
+public abstract class AbstractDefaultMovesModel extends AbstractModel implements MovesModelI, StreamingMicroEventModel<MoveEvent> {
 
     protected final static Logger LOGGER = Logger.getLogger(AbstractDefaultMovesModel.class);
     protected final static Logger traceLogger = Logger.getLogger("trace");
@@ -30,9 +36,15 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
     protected final Accessibility accessibility;
 
     private double[] averageHousingSatisfaction;
-    private MovesOrNotJSCalculator movesOrNotJSCalculator;
+    private CalculatorPool<MovesOrNotJSCalculator> movesOrNotJSCalculator;
 
-    protected DwellingUtilityJSCalculator dwellingUtilityJSCalculator;
+    protected CalculatorPool<DwellingUtilityJSCalculator> dwellingUtilityJSCalculator;
+    protected final DwellingUtilities dwellingUtilities = new DwellingUtilities();
+    // by zone id, the accessibilities the dwelling utilities were last evaluated with
+    private double[] autoAccessibilityByZone = new double[0];
+    private double[] transitAccessibilityByZone = new double[0];
+
+    private RegionalTravelTimes carTravelTimesToRegions;
 
     protected int year;
 
@@ -53,28 +65,52 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
     protected abstract double calculateDwellingUtilityForHouseholdType(HouseholdType hhType, Dwelling dwelling);
     protected abstract double personalizeDwellingUtilityForThisHousehold(Household household, Dwelling dwelling, int income, double genericUtility);
 
+    /**
+     * Selects a region for this household and evaluates the vacant dwellings drawn by the sampler in that region.
+     * Must not change any data, so households can be evaluated in parallel as long as the sampler allows it.
+     * @param vacantDwellingSampler draws the vacant dwellings of a region the household evaluates
+     */
+    protected abstract DwellingCandidates findCandidateDwellings(Household household, IntFunction<int[]> vacantDwellingSampler);
+
+
+    /**
+     * @return the utility of the dwelling for this household type, which is only calculated again if the
+     * dwelling or its zone changed since it was last calculated
+     */
+    protected double getDwellingUtilityForHouseholdType(HouseholdType hhType, Dwelling dwelling) {
+        return dwellingUtilities.getOrCalculate(dwelling, hhType, this::calculateDwellingUtilityForHouseholdType);
+    }
 
     @Override
-    public EnumMap<HouseholdType,Double> updateUtilitiesOfVacantDwelling(Dwelling dd) {
+    public void updateUtilitiesOfVacantDwelling(Dwelling dd) {
         // Calculate utility of this dwelling for each household type
-        EnumMap<HouseholdType,Double> utilitiesByHouseholdType = new EnumMap<>(HouseholdType.class);
-        //double[] utilByHhType = new double[HouseholdType.values().length];
         for (HouseholdType ht : HouseholdType.values()) {
-            utilitiesByHouseholdType.put(ht, calculateDwellingUtilityForHouseholdType(ht,  dd));
-
-            //utilByHhType[ht.ordinal()] = calculateDwellingUtilityOfHousehold(ht, -1, dd);
+            getDwellingUtilityForHouseholdType(ht, dd);
         }
-        return utilitiesByHouseholdType;
     }
 
     @Override
-    public List<MoveEvent> prepareYear(int year) {
+    public void removeUtilitiesOfDwelling(int dwellingId) {
+        dwellingUtilities.remove(dwellingId);
+    }
+
+    @Override
+    public int searchForNewDwelling(Household household) {
+        return findCandidateDwellings(household, this::sampleVacantDwellings).select();
+    }
+
+    @Override
+    public int prepareIdRange(int year) {
         this.year = year;
-        final List<MoveEvent> events = new ArrayList<>();
-        for (Household hh : dataContainer.getHouseholdData().getHouseholds()) {
-            events.add(new MoveEvent(hh.getId()));
+        return dataContainer.getHouseholdData().getHighestHouseholdIdInUse();
+    }
+
+    @Override
+    public MoveEvent createEvent(int id) {
+        if (dataContainer.getHouseholdData().getHouseholdFromId(id) == null) {
+            return null;
         }
-        return events;
+        return new MoveEvent(id);
     }
 
     @Override
@@ -90,10 +126,18 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
         if (!moveOrNot(household)) {
             return false;                                                             // Step 1: Consider relocation if household is not very satisfied or if household income exceed restriction for low-income dwelling
         }
-        int oldDd = household.getDwellingId();
         int idNewDD = searchForNewDwelling(household);  // Step 2: Choose new dwelling
+        return relocate(household, idNewDD);            // Step 3: Move household
+    }
+
+    /**
+     * Moves the household into the selected dwelling, if any.
+     * @return true if the household moved
+     */
+    protected boolean relocate(Household household, int idNewDD) {
+        int hhId = household.getId();
         if (idNewDD > 0) {
-            moveHousehold(household, household.getDwellingId(), idNewDD);    // Step 3: Move household
+            moveHousehold(household, household.getDwellingId(), idNewDD);
             dataContainer.getHouseholdData().addHouseholdThatMoved(household);
             if (hhId == SiloUtil.trackHh) {
                 SiloUtil.trackWriter.println("Household " + hhId + " has moved to dwelling " +
@@ -116,7 +160,7 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
 
     private void setupEvaluateDwellings() {
         Reader reader = new InputStreamReader(this.getClass().getResourceAsStream("DwellingUtilityCalc"));
-        dwellingUtilityJSCalculator = new DwellingUtilityJSCalculator(reader);
+        dwellingUtilityJSCalculator = new CalculatorPool<>(reader, DwellingUtilityJSCalculator::new);
     }
 
     private void setupMoveOrNotMove() {
@@ -141,7 +185,7 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
         }
 */
         Reader reader = new InputStreamReader(this.getClass().getResourceAsStream("MovesOrNotCalc"));
-        movesOrNotJSCalculator = new MovesOrNotJSCalculator(reader);
+        movesOrNotJSCalculator = new CalculatorPool<>(reader, MovesOrNotJSCalculator::new);
 
     }
 
@@ -152,16 +196,57 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
         LOGGER.info("  Evaluating utility of dwellings for current residents and utility of vacant dwellings for all " +
                 "household types");
 
+        markZonesWithChangedAccessibilities();
+        // every dwelling is evaluated by exactly one task, and the capacity of the utilities is ensured up front,
+        // so tasks never write to the same entry or resize the array
+        final List<Dwelling> dwellings = new ArrayList<>(dataContainer.getRealEstateData().getDwellings());
+        dwellingUtilities.ensureCapacity(RealEstateDataManager.getHighestDwellingIdInUse());
+        final int partitions = Math.min(dwellings.size(), 4 * Runtime.getRuntime().availableProcessors());
+        ConcurrentExecutor executor = ConcurrentExecutor.cachedService();
+        for (int i = 0; i < partitions; i++) {
+            final List<Dwelling> partition = dwellings.subList(
+                    (int) ((long) dwellings.size() * i / partitions), (int) ((long) dwellings.size() * (i + 1) / partitions));
+            executor.addTaskToQueue(() -> {
+                evaluateDwellingUtilities(partition);
+                return null;
+            });
+        }
+        executor.execute();
+        dwellingUtilities.logStatistics();
+    }
+
+    private void markZonesWithChangedAccessibilities() {
+        final int highestZoneId = geoData.getZones().keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        if (highestZoneId >= autoAccessibilityByZone.length) {
+            autoAccessibilityByZone = new double[highestZoneId + 1];
+            transitAccessibilityByZone = new double[highestZoneId + 1];
+            Arrays.fill(autoAccessibilityByZone, Double.NaN);
+            Arrays.fill(transitAccessibilityByZone, Double.NaN);
+        }
+        int changedZones = 0;
+        for (int zone : geoData.getZones().keySet()) {
+            double autoAccessibility = accessibility.getAutoAccessibilityForZone(zone);
+            double transitAccessibility = accessibility.getTransitAccessibilityForZone(zone);
+            if (autoAccessibility != autoAccessibilityByZone[zone] || transitAccessibility != transitAccessibilityByZone[zone]) {
+                autoAccessibilityByZone[zone] = autoAccessibility;
+                transitAccessibilityByZone[zone] = transitAccessibility;
+                dwellingUtilities.markZoneChanged(zone);
+                changedZones++;
+            }
+        }
+        LOGGER.info("  Accessibilities changed in " + changedZones + " zones.");
+    }
+
+    private void evaluateDwellingUtilities(List<Dwelling> dwellings) {
         HouseholdDataManager householdData = dataContainer.getHouseholdData();
-        for (Dwelling dd : dataContainer.getRealEstateData().getDwellings()) {
+        for (Dwelling dd : dwellings) {
             if (dd.getResidentId() == -1) {
                 // dwelling is vacant, evaluate for all household types
-                EnumMap<HouseholdType, Double> utilitiesByHhtype = updateUtilitiesOfVacantDwelling(dd);
-                dd.setUtilitiesByHouseholdType(utilitiesByHhtype);
+                updateUtilitiesOfVacantDwelling(dd);
             } else {
                 // dwelling is occupied, evaluate for the current household
                 Household hh = householdData.getHouseholdFromId(dd.getResidentId());
-                double util = calculateDwellingUtilityForHouseholdType(hh.getHouseholdType(), dd);
+                double util = getDwellingUtilityForHouseholdType(hh.getHouseholdType(), dd);
                 util = personalizeDwellingUtilityForThisHousehold(hh, dd, HouseholdUtil.getHhIncome(hh), util);
                 dd.setUtilOfResident(util);
             }
@@ -216,6 +301,46 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
 
 
 
+    /**
+     * Calculates the car travel times from all zones to all regions in the peak hour. Travel times only change between
+     * years, so this is done once per year before households search for dwellings.
+     */
+    protected void updateCarTravelTimesToRegions() {
+        carTravelTimesToRegions = RegionalTravelTimes.of(dataContainer.getTravelTimes(), geoData.getZones().values(),
+                geoData.getRegions().values(), Properties.get().transportModel.peakHour_s, TransportMode.car);
+    }
+
+    protected double getCarTravelTimeToRegion(Zone zone, Region region) {
+        if (carTravelTimesToRegions == null) {
+            updateCarTravelTimesToRegions();
+        }
+        return carTravelTimesToRegions.getTravelTime(zone.getZoneId(), region.getId());
+    }
+
+    /**
+     * Draws the vacant dwellings of the region a household evaluates in its dwelling search, see
+     * {@link de.tum.bgu.msm.properties.modules.MovesProperties#dwellingSearchSampleSize}.
+     */
+    protected int[] sampleVacantDwellings(int region) {
+        final int sampleSize = Properties.get().moves.dwellingSearchSampleSize;
+        if (Properties.get().moves.dwellingSearchStratifiedByType) {
+            return RealEstateDataManager.sampleVacantDwellingsInRegionByType(region, sampleSize, SiloUtil.getRandomObject());
+        }
+        return RealEstateDataManager.sampleVacantDwellingsInRegion(region, sampleSize, SiloUtil.getRandomObject());
+    }
+
+    /**
+     * Same as {@link #sampleVacantDwellings(int)}, but leaves the vacancy index untouched, so households can
+     * sample in parallel while no dwelling becomes vacant or occupied.
+     */
+    protected int[] sampleVacantDwellingsWithoutReordering(int region) {
+        final int sampleSize = Properties.get().moves.dwellingSearchSampleSize;
+        if (Properties.get().moves.dwellingSearchStratifiedByType) {
+            return RealEstateDataManager.sampleVacantDwellingsInRegionByTypeWithoutReordering(region, sampleSize, SiloUtil.getRandomObject());
+        }
+        return RealEstateDataManager.sampleVacantDwellingsInRegionWithoutReordering(region, sampleSize, SiloUtil.getRandomObject());
+    }
+
     protected double convertAccessToUtility(double accessibility) {
         return accessibility / 100f;
     }
@@ -243,7 +368,7 @@ public abstract class AbstractDefaultMovesModel extends AbstractModel implements
 //        prop[0] = 1. - 1. / (1. + parameter_MoveOrNotShift *
 //                Math.exp(parameter_MoveOrNotSlope * (averageHousingSatisfaction[hhType.ordinal()] - currentUtil)));
 
-        prop[0] = movesOrNotJSCalculator.getMovingProbability(averageHousingSatisfaction[hhType.ordinal()], currentUtil);
+        prop[0] = movesOrNotJSCalculator.calculate(calculator -> calculator.getMovingProbability(averageHousingSatisfaction[hhType.ordinal()], currentUtil));
         prop[1] = 1. - prop[0];
 
         return SiloUtil.select(prop) == 0;
@@ -0,0 +1,238 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.container.SiloDataContainer;
+import de.tum.bgu.msm.data.RealEstateDataManager;
+import de.tum.bgu.msm.data.household.Household;
+import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.concurrent.RandomizableConcurrentFunction;
+import de.tum.bgu.msm.utils.SiloUtil;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates the relocation of all households in two phases instead of one move event per household.
+ * <p>
+ * In the first phase, households decide whether to move and evaluate candidate dwellings in parallel. Nothing is
+ * changed in this phase, so all households see the vacant dwellings at the start of the phase. In the second phase,
+ * households are moved one after another in random order. Candidates that were taken by an earlier household are
+ * excluded and the dwelling is drawn again from the remaining candidates. If all candidates were taken, the household
+ * searches again among the dwellings vacant at that time. Dwellings vacated in the second phase are only found by
+ * households that search again.
+ * <p>
+ * Households are split into a fixed number of batches, see
+ * {@link de.tum.bgu.msm.properties.modules.EventRulesProperties#parallelPartitions}. Each batch draws from its own
+ * random object, seeded in batch order, so results do not depend on thread scheduling or on the number of threads.
+ */
+public final class BatchedRelocation {
+
+    private final static Logger logger = Logger.getLogger(BatchedRelocation.class);
+
+    /**
+     * Steps of the dwelling search, as implemented by the moves model. Only {@link #findCandidates(Household)} is
+     * called in parallel, between {@link #prepareParallelSearch()} and {@link #finishParallelSearch()}.
+     */
+    interface DwellingSearch {
+
+        Collection<Household> getHouseholds();
+
+        boolean moveOrNot(Household household);
+
+        /**
+         * Must not change any data, see {@link AbstractDefaultMovesModel#findCandidateDwellings}.
+         */
+        DwellingCandidates findCandidates(Household household);
+
+        /**
+         * @return the id of a dwelling vacant at this time or -1 if none was found
+         */
+        int searchAgain(Household household);
+
+        boolean isOccupied(int dwellingId);
+
+        /**
+         * @return true if the household moved
+         */
+        boolean relocate(Household household, int dwellingId);
+
+        void prepareParallelSearch();
+
+        void finishParallelSearch();
+    }
+
+    private final DwellingSearch search;
+    private final int partitions;
+    // number of threads evaluating the batches, 0 for one thread per batch
+    private final int threads;
+
+    public BatchedRelocation(SiloDataContainer dataContainer, AbstractDefaultMovesModel movesModel) {
+        this(new MovesModelSearch(dataContainer, movesModel), Properties.get().eventRules.parallelPartitions, 0);
+    }
+
+    BatchedRelocation(DwellingSearch search, int partitions, int threads) {
+        this.search = search;
+        this.partitions = Math.max(1, partitions);
+        this.threads = threads;
+    }
+
+    /**
+     * @return the number of households that moved
+     */
+    public int relocateHouseholds() {
+        final List<Household> households = new ArrayList<>(search.getHouseholds());
+        Collections.shuffle(households, SiloUtil.getRandomObject());
+        final DwellingCandidates[] candidates = findCandidates(households);
+        return assignDwellings(households, candidates);
+    }
+
+    /**
+     * @return the candidates by position of the household in the list, null for households that do not move
+     */
+    private DwellingCandidates[] findCandidates(List<Household> households) {
+        logger.info("  Evaluating dwellings for " + households.size() + " households in " + partitions + " parallel batches...");
+        search.prepareParallelSearch();
+        final DwellingCandidates[] candidates = new DwellingCandidates[households.size()];
+        final List<CandidateBatch> tasks = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            final int from = (int) ((long) households.size() * i / partitions);
+            final int to = (int) ((long) households.size() * (i + 1) / partitions);
+            tasks.add(new CandidateBatch(households.subList(from, to), candidates, from));
+        }
+        final ConcurrentExecutor executor = ConcurrentExecutor.cachedService();
+        if (threads <= 0 || threads >= partitions) {
+            for (CandidateBatch task : tasks) {
+                executor.addTaskToQueue(task);
+            }
+        } else {
+            final AtomicInteger nextBatch = new AtomicInteger();
+            for (int i = 0; i < threads; i++) {
+                executor.addTaskToQueue(() -> {
+                    for (int batch = nextBatch.getAndIncrement(); batch < partitions; batch = nextBatch.getAndIncrement()) {
+                        tasks.get(batch).call();
+                    }
+                    return null;
+                });
+            }
+        }
+        executor.execute();
+        search.finishParallelSearch();
+        return candidates;
+    }
+
+    private int assignDwellings(List<Household> households, DwellingCandidates[] candidates) {
+        int movers = 0;
+        int moved = 0;
+        int redrawn = 0;
+        int searchedAgain = 0;
+        for (int i = 0; i < households.size(); i++) {
+            if (candidates[i] == null) {
+                continue;
+            }
+            movers++;
+            Household household = households.get(i);
+            int excluded = candidates[i].exclude(search::isOccupied);
+            int idNewDD = candidates[i].select();
+            if (excluded > 0) {
+                if (idNewDD > 0) {
+                    redrawn++;
+                } else {
+                    idNewDD = search.searchAgain(household);
+                    searchedAgain++;
+                }
+            }
+            if (search.relocate(household, idNewDD)) {
+                moved++;
+            }
+        }
+        logger.info("  " + movers + " households intended to move, " + moved + " moved. " + redrawn
+                + " households drew another candidate and " + searchedAgain + " searched again because dwellings were taken.");
+        return moved;
+    }
+
+    private final class CandidateBatch extends RandomizableConcurrentFunction {
+
+        private final List<Household> batch;
+        private final DwellingCandidates[] candidates;
+        private final int offset;
+
+        private CandidateBatch(List<Household> batch, DwellingCandidates[] candidates, int offset) {
+            super(SiloUtil.getRandomObject().nextLong());
+            this.batch = batch;
+            this.candidates = candidates;
+            this.offset = offset;
+        }
+
+        @Override
+        public Object call() {
+            SiloUtil.setThreadLocalRandom(random);
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    Household household = batch.get(i);
+                    if (search.moveOrNot(household)) {
+                        candidates[offset + i] = search.findCandidates(household);
+                    }
+                }
+            } finally {
+                SiloUtil.clearThreadLocalRandom();
+            }
+            return null;
+        }
+    }
+
+    private static final class MovesModelSearch implements DwellingSearch {
+
+        private final SiloDataContainer dataContainer;
+        private final AbstractDefaultMovesModel movesModel;
+
+        private MovesModelSearch(SiloDataContainer dataContainer, AbstractDefaultMovesModel movesModel) {
+            this.dataContainer = dataContainer;
+            this.movesModel = movesModel;
+        }
+
+        @Override
+        public Collection<Household> getHouseholds() {
+            return dataContainer.getHouseholdData().getHouseholds();
+        }
+
+        @Override
+        public boolean moveOrNot(Household household) {
+            return movesModel.moveOrNot(household);
+        }
+
+        @Override
+        public DwellingCandidates findCandidates(Household household) {
+            return movesModel.findCandidateDwellings(household, movesModel::sampleVacantDwellingsWithoutReordering);
+        }
+
+        @Override
+        public int searchAgain(Household household) {
+            return movesModel.searchForNewDwelling(household);
+        }
+
+        @Override
+        public boolean isOccupied(int dwellingId) {
+            return dataContainer.getRealEstateData().getDwelling(dwellingId).getResidentId() != -1;
+        }
+
+        @Override
+        public boolean relocate(Household household, int dwellingId) {
+            return movesModel.relocate(household, dwellingId);
+        }
+
+        @Override
+        public void prepareParallelSearch() {
+            // households evaluate dwellings in parallel, so the utilities must not be resized meanwhile
+            movesModel.dwellingUtilities.ensureCapacity(RealEstateDataManager.getHighestDwellingIdInUse());
+        }
+
+        @Override
+        public void finishParallelSearch() {
+            movesModel.dwellingUtilities.logStatistics();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.utils.SiloUtil;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Vacant dwellings a household evaluated in its dwelling search, with the probability of selecting each of them.
+ * Candidates are found once and the dwelling is drawn later, so dwellings that were taken by another household
+ * in between can be excluded before drawing.
+ */
+public final class DwellingCandidates {
+
+    private final int[] dwellingIds;
+    private final double[] probabilities;
+
+    public DwellingCandidates(int[] dwellingIds, double[] probabilities) {
+        if (dwellingIds.length != probabilities.length) {
+            throw new IllegalArgumentException("Got " + dwellingIds.length + " dwellings but "
+                    + probabilities.length + " probabilities.");
+        }
+        this.dwellingIds = dwellingIds;
+        this.probabilities = probabilities;
+    }
+
+    /**
+     * @return candidates of a household that could not find a region with some utility
+     */
+    public static DwellingCandidates none() {
+        return new DwellingCandidates(new int[0], new double[0]);
+    }
+
+    /**
+     * Excludes all candidates that are not available anymore from being selected.
+     * @return the number of candidates with positive probability that were excluded
+     */
+    public int exclude(IntPredicate unavailable) {
+        int excluded = 0;
+        for (int i = 0; i < dwellingIds.length; i++) {
+            if (probabilities[i] > 0 && unavailable.test(dwellingIds[i])) {
+                probabilities[i] = 0;
+                excluded++;
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * Draws one of the candidates by their probabilities with the random object of the current thread.
+     * @return the id of the selected dwelling or -1 if no candidate has a positive probability
+     */
+    public int select() {
+        final double sum = SiloUtil.getSum(probabilities);
+        if (sum == 0) {
+            return -1;
+        }
+        // draws like the deprecated SiloUtil.select(double[], double, Random), from a single float per selection
+        final double selectedPosition = sum * SiloUtil.getRandomObject().nextFloat();
+        double cumulative = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            cumulative += probabilities[i];
+            if (cumulative > selectedPosition) {
+                return dwellingIds[i];
+            }
+        }
+        return dwellingIds[dwellingIds.length - 1];
+    }
+}
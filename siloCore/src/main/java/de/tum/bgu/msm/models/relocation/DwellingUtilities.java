@@ -0,0 +1,139 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.data.dwelling.Dwelling;
+import de.tum.bgu.msm.data.household.HouseholdType;
+import org.apache.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Utilities of dwellings for all household types, stored as one float per dwelling and household type
+ * in a dense array by dwelling id. Dwellings without utilities return NaN.
+ * <p>
+ * Utilities are kept from year to year and only recalculated for dwellings that changed. For every dwelling the
+ * zone, price and quality its utilities were calculated with are remembered, so price updates, renovations and
+ * relocated ids are noticed when the dwelling is looked up next. Changes of a zone, such as new accessibilities,
+ * are announced with {@link #markZoneChanged(int)} and invalidate all dwellings of the zone.
+ * <p>
+ * Different dwellings may be looked up and written by different threads at the same time as long as the capacity
+ * was ensured before. The same dwelling may be looked up by several threads at the same time as long as it does not
+ * change meanwhile, at worst a utility is calculated twice. Otherwise not thread safe.
+ */
+public final class DwellingUtilities {
+
+    private final static Logger logger = Logger.getLogger(DwellingUtilities.class);
+
+    private static final HouseholdType[] TYPES = HouseholdType.values();
+
+    // by dwelling id * TYPES.length + household type ordinal
+    private float[] utilities = new float[0];
+
+    // by dwelling id, the inputs the utilities were calculated with. zoneOfDwelling is -1 if there are none
+    private int[] zoneOfDwelling = new int[0];
+    private int[] zoneVersionOfDwelling = new int[0];
+    private int[] priceOfDwelling = new int[0];
+    private int[] qualityOfDwelling = new int[0];
+
+    // by zone id
+    private int[] zoneVersions = new int[0];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder recalculations = new LongAdder();
+
+    public void ensureCapacity(int highestDwellingId) {
+        if (highestDwellingId >= zoneOfDwelling.length) {
+            int oldLength = zoneOfDwelling.length;
+            int newLength = Math.max(highestDwellingId + 1, oldLength + (oldLength >> 1));
+            utilities = Arrays.copyOf(utilities, newLength * TYPES.length);
+            Arrays.fill(utilities, oldLength * TYPES.length, newLength * TYPES.length, Float.NaN);
+            zoneOfDwelling = Arrays.copyOf(zoneOfDwelling, newLength);
+            Arrays.fill(zoneOfDwelling, oldLength, newLength, -1);
+            zoneVersionOfDwelling = Arrays.copyOf(zoneVersionOfDwelling, newLength);
+            priceOfDwelling = Arrays.copyOf(priceOfDwelling, newLength);
+            qualityOfDwelling = Arrays.copyOf(qualityOfDwelling, newLength);
+        }
+    }
+
+    /**
+     * Invalidates the utilities of all dwellings in this zone.
+     */
+    public void markZoneChanged(int zone) {
+        if (zone >= zoneVersions.length) {
+            zoneVersions = Arrays.copyOf(zoneVersions, Math.max(zone + 1, zoneVersions.length + (zoneVersions.length >> 1)));
+        }
+        zoneVersions[zone]++;
+    }
+
+    /**
+     * Returns the stored utility of the dwelling for this household type if the dwelling did not change since it
+     * was calculated. Otherwise, the utility is calculated and stored.
+     */
+    public double getOrCalculate(Dwelling dwelling, HouseholdType type,
+                                 ToDoubleBiFunction<HouseholdType, Dwelling> calculator) {
+        int dwellingId = dwelling.getId();
+        ensureCapacity(dwellingId);
+        if (hasChanged(dwelling)) {
+            remove(dwellingId);
+            zoneOfDwelling[dwellingId] = dwelling.getZoneId();
+            zoneVersionOfDwelling[dwellingId] = zoneVersion(dwelling.getZoneId());
+            priceOfDwelling[dwellingId] = dwelling.getPrice();
+            qualityOfDwelling[dwellingId] = dwelling.getQuality();
+        }
+        int index = dwellingId * TYPES.length + type.ordinal();
+        float utility = utilities[index];
+        if (Float.isNaN(utility)) {
+            utility = (float) calculator.applyAsDouble(type, dwelling);
+            utilities[index] = utility;
+            recalculations.increment();
+        } else {
+            hits.increment();
+        }
+        return utility;
+    }
+
+    /**
+     * @return the utility or NaN if it was not calculated yet
+     */
+    public double get(int dwellingId, HouseholdType type) {
+        int index = dwellingId * TYPES.length + type.ordinal();
+        return index < utilities.length ? utilities[index] : Double.NaN;
+    }
+
+    public void remove(int dwellingId) {
+        if (dwellingId < zoneOfDwelling.length) {
+            Arrays.fill(utilities, dwellingId * TYPES.length, (dwellingId + 1) * TYPES.length, Float.NaN);
+            zoneOfDwelling[dwellingId] = -1;
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getRecalculations() {
+        return recalculations.sum();
+    }
+
+    /**
+     * Logs and resets the number of reused and recalculated utilities.
+     */
+    public void logStatistics() {
+        logger.info("  Dwelling utilities: " + hits.sumThenReset() + " reused, "
+                + recalculations.sumThenReset() + " recalculated.");
+    }
+
+    private boolean hasChanged(Dwelling dwelling) {
+        int dwellingId = dwelling.getId();
+        int zone = zoneOfDwelling[dwellingId];
+        return zone != dwelling.getZoneId()
+                || zoneVersionOfDwelling[dwellingId] != zoneVersion(zone)
+                || priceOfDwelling[dwellingId] != dwelling.getPrice()
+                || qualityOfDwelling[dwellingId] != dwelling.getQuality();
+    }
+
+    private int zoneVersion(int zone) {
+        return zone < zoneVersions.length ? zoneVersions[zone] : 0;
+    }
+}
@@ -2,12 +2,9 @@ package de.tum.bgu.msm.models.relocation;
 
 import de.tum.bgu.msm.data.dwelling.Dwelling;
 import de.tum.bgu.msm.data.household.Household;
-import de.tum.bgu.msm.data.household.HouseholdType;
 import de.tum.bgu.msm.events.MicroEventModel;
 import de.tum.bgu.msm.events.impls.household.MoveEvent;
 
-import java.util.EnumMap;
-
 /**
  * Interface to generate an application-specific implementation of the MovesModel
  * @author Rolf Moeckel
@@ -17,7 +14,13 @@ public interface MovesModelI extends MicroEventModel<MoveEvent> {
 
     void calculateAverageHousingSatisfaction();
 
-    EnumMap<HouseholdType,Double> updateUtilitiesOfVacantDwelling (Dwelling dd);
+    /**
+     * Calculates the utility of this dwelling for each household type and stores it in the dwelling utilities
+     * of this model.
+     */
+    void updateUtilitiesOfVacantDwelling(Dwelling dd);
+
+    void removeUtilitiesOfDwelling(int dwellingId);
 
     void calculateRegionalUtilities();
 
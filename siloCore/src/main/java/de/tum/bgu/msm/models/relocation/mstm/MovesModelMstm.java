@@ -21,15 +21,18 @@ import de.tum.bgu.msm.data.person.Occupation;
 import de.tum.bgu.msm.data.person.Person;
 import de.tum.bgu.msm.data.person.Race;
 import de.tum.bgu.msm.models.relocation.AbstractDefaultMovesModel;
+import de.tum.bgu.msm.models.relocation.DwellingCandidates;
 import de.tum.bgu.msm.models.relocation.SelectDwellingJSCalculator;
 import de.tum.bgu.msm.models.relocation.SelectRegionJSCalculator;
 import de.tum.bgu.msm.properties.Properties;
 import de.tum.bgu.msm.util.matrices.Matrices;
+import de.tum.bgu.msm.utils.CalculatorPool;
 import org.matsim.api.core.v01.TransportMode;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.*;
+import java.util.function.IntFunction;
 
 //import com.pb.common.calculator.UtilityExpressionCalculator;
 //import de.tum.bgu.msm.models.relocation.MovesDMU;
@@ -45,7 +48,7 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
     private double selectDwellingRaceRelevance;
     private boolean provideRentSubsidyToLowIncomeHh;
 
-    private SelectDwellingJSCalculator dwellingCalculator;
+    private CalculatorPool<SelectDwellingJSCalculator> dwellingCalculator;
 
     public MovesModelMstm(SiloDataContainer dataContainer, Accessibility accessibility) {
         super(dataContainer, accessibility);
@@ -157,6 +160,7 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
     public void calculateRegionalUtilities() {
         // this method calculates generic utilities by household type, race and region and stores them in utilityRegion
 
+        updateCarTravelTimesToRegions();
         calculateRacialCompositionByZoneAndRegion();
         Map<Integer, Double> averagePriceByRegion = calculateRegionalPrices();
         Map<Integer, Integer> priceByRegion = new HashMap<>();
@@ -207,8 +211,7 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
             double thisRegionFactor = 1;
             if (workZones != null) {
                 for (Zone workZone : workZones) {
-                    int timeFromZoneToRegion = (int) dataContainer.getTravelTimes().getTravelTimeToRegion(
-                    		workZone, region, Properties.get().transportModel.peakHour_s, TransportMode.car);
+                    int timeFromZoneToRegion = (int) getCarTravelTimeToRegion(workZone, region);
                     thisRegionFactor = thisRegionFactor * accessibility.getCommutingTimeProbability(timeFromZoneToRegion);
                 }
             }
@@ -222,13 +225,13 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
     protected void setupSelectDwellingModel() {
         // set up model for choice of dwelling
         Reader reader = new InputStreamReader(this.getClass().getResourceAsStream("SelectDwellingCalc"));
-        dwellingCalculator = new SelectDwellingJSCalculator(reader);
+        dwellingCalculator = new CalculatorPool<>(reader, SelectDwellingJSCalculator::new);
 
     }
 
 
     @Override
-    public int searchForNewDwelling(Household household) {
+    protected DwellingCandidates findCandidateDwellings(Household household, IntFunction<int[]> vacantDwellingSampler) {
         // search alternative dwellings for the list of persons in the household
 
         // data preparation -- > count workers, store working zones, define income, define race
@@ -289,18 +292,16 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
         }
         int selectedRegionId;
         if (regionUtilitiesForThisHousehold.values().stream().mapToDouble(i -> i).sum() == 0) {
-            return -1; //cannot find a region with some utility //todo why not to look for for another region??
+            return DwellingCandidates.none(); //cannot find a region with some utility //todo why not to look for for another region??
         } else {
             selectedRegionId = SiloUtil.select(regionUtilitiesForThisHousehold);
         }
 
         // Step 2: select vacant dwelling in selected region
-        int[] vacantDwellings = RealEstateDataManager.getListOfVacantDwellingsInRegion(selectedRegionId);
+        // No household will evaluate more than the configured sample size of dwellings
+        int[] vacantDwellings = vacantDwellingSampler.apply(selectedRegionId);
         double[] expProbs = SiloUtil.createArrayWithValue(vacantDwellings.length, 0d);
-        int maxNumberOfDwellings = Math.min(20, vacantDwellings.length);  // No household will evaluate more than 20 dwellings
-        float factor = ((float) maxNumberOfDwellings / (float) vacantDwellings.length);
         for (int i = 0; i < vacantDwellings.length; i++) {
-            if (SiloUtil.getRandomNumberAsFloat() > factor) continue;
             Dwelling dd = dataContainer.getRealEstateData().getDwelling(vacantDwellings[i]);
             int msa = geoData.getZones().get(dd.getZoneId()).getMsa();
             if (dd.getRestriction() > 0 &&    // dwelling is restricted to households with certain income
@@ -311,7 +312,7 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
             }
             // multiply by racial share to make zones with higher own racial share more attractive
 
-            double utility = calculateDwellingUtilityForHouseholdType(ht, dd);
+            double utility = getDwellingUtilityForHouseholdType(ht, dd);
             utility = personalizeDwellingUtilityForThisHousehold(household, dd, householdIncome, utility);
 
 
@@ -319,12 +320,10 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
                     Math.pow(racialShare, selectDwellingRaceRelevance);
 
             //adjProbability is the adjusted dwelling utility
-            expProbs[i] = dwellingCalculator.calculateSelectDwellingProbability(adjustedUtility);
+            expProbs[i] = dwellingCalculator.calculate(calculator -> calculator.calculateSelectDwellingProbability(adjustedUtility));
 
         }
-        if (SiloUtil.getSum(expProbs) == 0) return -1;    // could not find dwelling that fits restrictions
-        int selected = SiloUtil.select(expProbs);
-        return vacantDwellings[selected];
+        return new DwellingCandidates(vacantDwellings, expProbs);
     }
 
 
@@ -338,9 +337,9 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
         double transitAccessibilityUtility = convertAccessToUtility(accessibility.getTransitAccessibilityForZone(dd.getZoneId()));
         double ddPriceUtility = convertPriceToUtility(dd.getPrice(), ht);
 
-        return dwellingUtilityJSCalculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
+        return dwellingUtilityJSCalculator.calculate(calculator -> calculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
                 ddQualityUtility, ddAutoAccessibilityUtility,
-                transitAccessibilityUtility);
+                transitAccessibilityUtility));
     }
 
     @Override
@@ -365,15 +364,16 @@ public class MovesModelMstm extends AbstractDefaultMovesModel {
                 }
             }
             double ddPriceUtility = convertPriceToUtility(price, ht);
-            genericUtility =  dwellingUtilityJSCalculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
+            genericUtility =  dwellingUtilityJSCalculator.calculate(calculator -> calculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
                     ddQualityUtility, ddAutoAccessibilityUtility,
-                    transitAccessibilityUtility);
+                    transitAccessibilityUtility));
         }
 
         double workDistanceUtility = 1;
         double travelCostUtility = 1; //do not have effect at the moment
 
-        return dwellingUtilityJSCalculator.personalizeUtility(ht, genericUtility, workDistanceUtility, travelCostUtility);
+        final double utility = genericUtility;
+        return dwellingUtilityJSCalculator.calculate(calculator -> calculator.personalizeUtility(ht, utility, workDistanceUtility, travelCostUtility));
     }
 
     private boolean householdQualifiesForSubsidy(int income, int zone, int price) {
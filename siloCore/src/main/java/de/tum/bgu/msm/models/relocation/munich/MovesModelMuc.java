@@ -8,7 +8,6 @@ package de.tum.bgu.msm.models.relocation.munich;
 
 import cern.colt.matrix.tdouble.DoubleMatrix1D;
 import de.tum.bgu.msm.data.job.Job;
-import de.tum.bgu.msm.properties.Properties;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.data.*;
@@ -21,21 +20,24 @@ import de.tum.bgu.msm.data.person.Nationality;
 import de.tum.bgu.msm.data.person.Occupation;
 import de.tum.bgu.msm.data.person.Person;
 import de.tum.bgu.msm.models.relocation.AbstractDefaultMovesModel;
+import de.tum.bgu.msm.models.relocation.DwellingCandidates;
 import de.tum.bgu.msm.models.relocation.SelectDwellingJSCalculator;
 import de.tum.bgu.msm.models.relocation.SelectRegionJSCalculator;
 import de.tum.bgu.msm.util.matrices.Matrices;
+import de.tum.bgu.msm.utils.CalculatorPool;
 import org.matsim.api.core.v01.TransportMode;
 
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.*;
+import java.util.function.IntFunction;
 
 public class MovesModelMuc extends AbstractDefaultMovesModel {
 
     private SelectRegionJSCalculator regionCalculator;
     private EnumMap<IncomeCategory, EnumMap<Nationality, Map<Integer, Double>>> utilityByIncomeNationalityAndRegion = new EnumMap<>(IncomeCategory.class) ;
 
-    private SelectDwellingJSCalculator dwellingCalculator;
+    private CalculatorPool<SelectDwellingJSCalculator> dwellingCalculator;
     private final DoubleMatrix1D regionalShareForeigners;
     private final DoubleMatrix1D hhByRegion;
 
@@ -120,6 +122,7 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
     @Override
     public void calculateRegionalUtilities() {
         LOGGER.info("Calculating regional utilities");
+        updateCarTravelTimesToRegions();
         calculateShareOfForeignersByZoneAndRegion();
         final Map<Integer, Double> rentsByRegion = calculateRegionalPrices();
         for (IncomeCategory incomeCategory: IncomeCategory.values()) {
@@ -150,8 +153,7 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
             double thisRegionFactor = 1;
             if (workZones != null) {
                 for (Zone workZone : workZones) {
-                    int timeFromZoneToRegion = (int) dataContainer.getTravelTimes().getTravelTimeToRegion(
-                    		workZone, region, Properties.get().transportModel.peakHour_s, TransportMode.car);
+                    int timeFromZoneToRegion = (int) getCarTravelTimeToRegion(workZone, region);
                     thisRegionFactor = thisRegionFactor * accessibility.getCommutingTimeProbability(timeFromZoneToRegion);
                 }
             }
@@ -163,12 +165,12 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
     @Override
     protected void setupSelectDwellingModel() {
         Reader reader = new InputStreamReader(this.getClass().getResourceAsStream("SelectDwellingCalc"));
-        dwellingCalculator = new SelectDwellingJSCalculator(reader);
+        dwellingCalculator = new CalculatorPool<>(reader, SelectDwellingJSCalculator::new);
     }
 
 
     @Override
-    public int searchForNewDwelling(Household household) {
+    protected DwellingCandidates findCandidateDwellings(Household household, IntFunction<int[]> vacantDwellingSampler) {
         // search alternative dwellings
 
         // data preparation
@@ -234,7 +236,7 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
 
         int selectedRegionId;
         if (regionUtilitiesForThisHousehold.values().stream().mapToDouble(i -> i).sum() == 0) {
-            return -1;
+            return DwellingCandidates.none();
         } else {
             selectedRegionId = SiloUtil.select(regionUtilitiesForThisHousehold);
         }
@@ -252,22 +254,16 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
 
 
         // Step 2: select vacant dwelling in selected region
-        int[] vacantDwellings = RealEstateDataManager.getListOfVacantDwellingsInRegion(selectedRegionId);
+        // No household will evaluate more than the configured sample size of dwellings
+        int[] vacantDwellings = vacantDwellingSampler.apply(selectedRegionId);
         double[] expProbs = SiloUtil.createArrayWithValue(vacantDwellings.length, 0d);
-        double sumProbs = 0.;
-        int maxNumberOfDwellings = Math.min(20, vacantDwellings.length);  // No household will evaluate more than 20 dwellings
-        float factor = ((float) maxNumberOfDwellings / (float) vacantDwellings.length);
         for (int i = 0; i < vacantDwellings.length; i++) {
-            if (SiloUtil.getRandomNumberAsFloat() > factor) continue;
             Dwelling dd = dataContainer.getRealEstateData().getDwelling(vacantDwellings[i]);
-            double util = calculateDwellingUtilityForHouseholdType(ht, dd);
-            util = personalizeDwellingUtilityForThisHousehold(household, dd, householdIncome, util);
-            expProbs[i] = dwellingCalculator.calculateSelectDwellingProbability(util);
-            sumProbs =+ expProbs[i];
+            double genericUtil = getDwellingUtilityForHouseholdType(ht, dd);
+            double util = personalizeDwellingUtilityForThisHousehold(household, dd, householdIncome, genericUtil);
+            expProbs[i] = dwellingCalculator.calculate(calculator -> calculator.calculateSelectDwellingProbability(util));
         }
-        if (sumProbs == 0) return -1;    // could not find dwelling that fits restrictions
-        int selected = SiloUtil.select(expProbs, sumProbs);
-        return vacantDwellings[selected];
+        return new DwellingCandidates(vacantDwellings, expProbs);
     }
 
     @Override
@@ -277,9 +273,9 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
         double ddAutoAccessibilityUtility = convertAccessToUtility(accessibility.getAutoAccessibilityForZone(dd.getZoneId()));
         double transitAccessibilityUtility = convertAccessToUtility(accessibility.getTransitAccessibilityForZone(dd.getZoneId()));
         double ddPriceUtility = convertPriceToUtility(dd.getPrice(), ht);
-        return dwellingUtilityJSCalculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
+        return dwellingUtilityJSCalculator.calculate(calculator -> calculator.calculateSelectDwellingUtility(ht, ddSizeUtility, ddPriceUtility,
                 ddQualityUtility, ddAutoAccessibilityUtility,
-                transitAccessibilityUtility);
+                transitAccessibilityUtility));
     }
 
     @Override
@@ -300,11 +296,15 @@ public class MovesModelMuc extends AbstractDefaultMovesModel {
         }
         double workDistanceUtility = 1;
         for (Job workLocation : jobsForThisHousehold.values()){
-        	double factorForThisZone = accessibility.getCommutingTimeProbability(Math.max(1,(int) dataContainer.getTravelTimes().getTravelTime(
-                    dd, workLocation, workLocation.getStartTimeInSeconds(), TransportMode.car)));
+            double travelTime = dataContainer.getTravelTimes().getTravelTime(
+                    dd, workLocation, workLocation.getStartTimeInSeconds(), TransportMode.car);
+            // a job that cannot be reached from the dwelling makes the dwelling unattractive
+            double factorForThisZone = Double.isFinite(travelTime) ?
+                    accessibility.getCommutingTimeProbability(Math.max(1, (int) travelTime)) : 0;
             workDistanceUtility *= factorForThisZone;
         }
-        return dwellingUtilityJSCalculator.personalizeUtility(ht, genericUtility, workDistanceUtility, travelCostUtility);
+        final double distanceUtility = workDistanceUtility;
+        return dwellingUtilityJSCalculator.calculate(calculator -> calculator.personalizeUtility(ht, genericUtility, distanceUtility, travelCostUtility));
     }
 
     @Override
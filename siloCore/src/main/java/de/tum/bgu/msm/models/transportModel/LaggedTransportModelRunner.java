@@ -0,0 +1,76 @@
+package de.tum.bgu.msm.models.transportModel;
+
+import org.apache.log4j.Logger;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the transport model on a background thread while the land use model continues with the previous travel times.
+ * A run is started from a snapshot of the SILO data and its travel times are applied at the next call of
+ * {@link #applyPendingRun()}, i.e. at a fixed point of the simulation and never while models read travel times.
+ * Results therefore do not depend on how long the transport model takes.
+ * <p>
+ * The run may read the travel times in use by SILO, so these must not be modified in place, e.g. by reading
+ * skims, while a run is pending.
+ */
+public final class LaggedTransportModelRunner {
+
+    private final static Logger logger = Logger.getLogger(LaggedTransportModelRunner.class);
+
+    private final TransportModelI transportModel;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transport-model");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<Runnable> pendingRun;
+    private int pendingYear;
+
+    public LaggedTransportModelRunner(TransportModelI transportModel) {
+        this.transportModel = transportModel;
+    }
+
+    /**
+     * Takes the snapshot for the given year on the calling thread and starts the transport model in the background.
+     */
+    public void startRun(int year) {
+        if (pendingRun != null) {
+            throw new IllegalStateException("Transport model run for year " + pendingYear + " has not been applied yet.");
+        }
+        Callable<Runnable> run = transportModel.prepareTransportModel(year)::get;
+        pendingRun = executor.submit(run);
+        pendingYear = year;
+        logger.info("  Started transport model for year " + year + " in the background.");
+    }
+
+    /**
+     * Waits for the pending run, if any, and applies its travel times.
+     * @return false if there was no pending run
+     */
+    public boolean applyPendingRun() {
+        if (pendingRun == null) {
+            return false;
+        }
+        try {
+            pendingRun.get().run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Transport model run for year " + pendingYear + " failed.", e.getCause());
+        } finally {
+            pendingRun = null;
+        }
+        logger.info("  Applied travel times of the transport model for year " + pendingYear + ".");
+        return true;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
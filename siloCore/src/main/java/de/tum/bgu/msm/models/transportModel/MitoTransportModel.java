@@ -1,6 +1,5 @@
 package de.tum.bgu.msm.models.transportModel;
 
-import com.vividsolutions.jts.geom.Coordinate;
 import de.tum.bgu.msm.MitoModel;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
@@ -18,9 +17,12 @@ import de.tum.bgu.msm.models.AbstractModel;
 import de.tum.bgu.msm.properties.Properties;
 import org.apache.log4j.Logger;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
+import java.util.function.Supplier;
 
 /**
  * Implementation of Transport Model Interface for MITO
@@ -54,8 +56,39 @@ public final class MitoTransportModel extends AbstractModel implements Transport
     	mito.runModel();
 		travelTimes = mito.getData().getTravelTimes();
 		travelDistancesAuto = mito.getData().getTravelDistancesAuto();
+		// the converted population is not needed anymore and would otherwise stay on the heap until the next run
+		this.mito = null;
     }
 
+	/**
+	 * SILO data is converted into MITO households and persons right away. MITO draws from its own random object
+	 * derived from the SILO random, as it may run while SILO continues to draw.
+	 * <p>
+	 * The travel times are handed to MITO without copying. MITO only reads them, and they are replaced, not modified,
+	 * when the run is applied. SILO must thus not update them in place while the run is pending, see
+	 * {@link LaggedTransportModelRunner}.
+	 */
+	@Override
+	public Supplier<Runnable> prepareTransportModel(int year) {
+		final MitoModel mito = MitoModel.initializeModelFromSilo(propertiesPath);
+		mito.setRandomNumberGenerator(new Random(SiloUtil.getRandomObject().nextLong()));
+		this.mito = mito;
+		setBaseDirectory(baseDirectory);
+		MitoModel.setScenarioName (Properties.get().main.scenarioName);
+		updateData(year);
+		this.mito = null;
+		return () -> {
+			logger.info("  Running travel demand model MITO for the year " + year);
+			mito.runModel();
+			final TravelTimes newTravelTimes = mito.getData().getTravelTimes();
+			final TravelDistances newTravelDistancesAuto = mito.getData().getTravelDistancesAuto();
+			return () -> {
+				travelTimes = newTravelTimes;
+				travelDistancesAuto = newTravelDistancesAuto;
+			};
+		};
+	}
+
 	private void updateData(int year) {
     	Map<Integer, MitoZone> zones = new HashMap<>();
 		for (Zone siloZone: dataContainer.getGeoData().getZones().values()) {
@@ -64,39 +97,22 @@ public final class MitoTransportModel extends AbstractModel implements Transport
 		}
 		dataContainer.getJobData().fillMitoZoneEmployees(zones);
 		Map<Integer, MitoHousehold> households = convertHhs(zones);
-		for(Person person: dataContainer.getHouseholdData().getPersons()) {
-			int hhId = person.getHousehold().getId();
-			if(households.containsKey(hhId)) {
-				MitoPerson mitoPerson = convertToMitoPp(person);
-				Coordinate workplaceCoordinate = null;
-				//todo need to mode the transitions between new born, student, unemployed and worker in a better way
-				if (person.getJobId()>0) {
-					//is a worker
-					Job job = dataContainer.getJobData().getJobFromId(person.getJobId());
-					if (job instanceof MicroLocation) {
-						//is a worker with a microlocated job
-						mitoPerson.setOccupationLocation(((MicroLocation) job).getCoordinate());
-					}
-				} else if (person.getSchoolLocation() instanceof MicroLocation) {
-					//is a student with a microlocated school
-					mitoPerson.setOccupationLocation(person.getSchoolLocation());
-				}
-				households.get(hhId).addPerson(mitoPerson);
-			} else {
-				logger.warn("Person " + person.getId() + " refers to non-existing household " + hhId
-						+ " and will thus NOT be considered in the transport model.");
-			}
-		}
         logger.info("  SILO data being sent to MITO");
         Input.InputFeed feed = new Input.InputFeed(zones, travelTimes, travelDistancesAuto, households, year, dataContainer.getGeoData().getZoneFeatureMap());
         mito.feedData(feed);
     }
 
+	/**
+	 * Converts households together with their persons in a single pass, so every job is looked up once and persons of
+	 * households that cannot be processed by MITO are not converted at all.
+	 */
 	private Map<Integer, MitoHousehold> convertHhs(Map<Integer, MitoZone> zones) {
-		Map<Integer, MitoHousehold> thhs = new HashMap<>();
+		final Collection<Household> siloHouseholds = dataContainer.getHouseholdData().getHouseholds();
+		Map<Integer, MitoHousehold> thhs = new HashMap<>((int) (siloHouseholds.size() / 0.75f) + 1);
 		RealEstateDataManager realEstateData = dataContainer.getRealEstateData();
+		JobDataManager jobData = dataContainer.getJobData();
 		int householdsSkipped = 0;
-		for (Household siloHousehold : dataContainer.getHouseholdData().getHouseholds()) {
+		for (Household siloHousehold : siloHouseholds) {
 			int zoneId = -1;
 			Dwelling dwelling = realEstateData.getDwelling(siloHousehold.getDwellingId());
 			if(dwelling != null) {
@@ -105,16 +121,15 @@ public final class MitoTransportModel extends AbstractModel implements Transport
 			}
 			MitoZone zone = zones.get(zoneId);
 
-			MitoHousehold household = convertToMitoHh(siloHousehold, zone);
-			//set mitoHousehold's microlocation
-			if (dwelling instanceof MicroLocation) {
-
-			}
             //todo if there are housholds without adults they cannot be processed
 			if (siloHousehold.getPersons().values().stream().anyMatch(p -> p.getAge() >= 18)){
 				if((((MicroLocation) dwelling).getCoordinate() != null)){
 					//todo if there are households without microlocation mito does not work
+					MitoHousehold household = convertToMitoHh(siloHousehold, zone);
 					household.setHomeLocation(((MicroLocation) dwelling).getCoordinate());
+					for (Person person : siloHousehold.getPersons().values()) {
+						household.addPerson(convertToMitoPp(person, jobData));
+					}
 					thhs.put(household.getId(), household);
 				} else {
 					logger.info("no microlocation valid for mito - skip household");
@@ -125,7 +140,7 @@ public final class MitoTransportModel extends AbstractModel implements Transport
             }
 		}
         logger.warn("There are " + householdsSkipped + " households without adults or with unvalid microlocations that CANNOT be processed in MITO (" +
-                householdsSkipped/dataContainer.getHouseholdData().getHouseholds().size()*100 + "%)");
+                householdsSkipped/siloHouseholds.size()*100 + "%)");
 		return thhs;
 	}
 
@@ -134,15 +149,29 @@ public final class MitoTransportModel extends AbstractModel implements Transport
 		return new MitoHousehold(household.getId(), HouseholdUtil.getHhIncome(household) / 12, household.getAutos(), zone);
 	}
 
-	private MitoPerson convertToMitoPp(Person person) {
+	private MitoPerson convertToMitoPp(Person person, JobDataManager jobData) {
 		final MitoGender mitoGender = MitoGender.valueOf(person.getGender().name());
 		final MitoOccupation mitoOccupation = MitoOccupation.valueOf(person.getOccupation().getCode());
 		final int workPlace = person.getJobId();
 		int workzone = -1;
+		Job job = null;
 		if(workPlace > 0) {
-			workzone = dataContainer.getJobData().getJobFromId(workPlace).getZoneId();
+			job = jobData.getJobFromId(workPlace);
+			workzone = job.getZoneId();
+		}
+		MitoPerson mitoPerson = new MitoPerson(person.getId(), mitoOccupation, workzone, person.getAge(), mitoGender, person.hasDriverLicense());
+		//todo need to mode the transitions between new born, student, unemployed and worker in a better way
+		if (job != null) {
+			//is a worker
+			if (job instanceof MicroLocation) {
+				//is a worker with a microlocated job
+				mitoPerson.setOccupationLocation(((MicroLocation) job).getCoordinate());
+			}
+		} else if (person.getSchoolLocation() instanceof MicroLocation) {
+			//is a student with a microlocated school
+			mitoPerson.setOccupationLocation(person.getSchoolLocation());
 		}
-		return new MitoPerson(person.getId(), mitoOccupation, workzone, person.getAge(), mitoGender, person.hasDriverLicense());
+		return mitoPerson;
 	}
 
     private void setBaseDirectory (String baseDirectory) {
@@ -18,10 +18,22 @@
  * *********************************************************************** */
 package de.tum.bgu.msm.models.transportModel;
 
+import java.util.function.Supplier;
+
 /**
  * @author nagel
  */
 public interface TransportModelI {
 
 	void runTransportModel(int year);
+
+	/**
+	 * Copies everything the transport model needs from the SILO data for the given year. The returned run works on this
+	 * copy only and may thus be executed on another thread. It returns the update of travel times, which has to be
+	 * applied on the simulation thread. By default, the transport model is run right away and there is nothing left to do.
+	 */
+	default Supplier<Runnable> prepareTransportModel(int year) {
+		runTransportModel(year);
+		return () -> () -> {};
+	}
 }
\ No newline at end of file
@@ -0,0 +1,238 @@
+package de.tum.bgu.msm.models.transportModel.matsim;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Average link travel times by time bin, stored as one float per link and bin.
+ * It is filled by streaming through a MATSim events file and only looking at link and traffic events,
+ * which replaces the events manager and travel time calculator for replaying the travel times of an earlier run.
+ * Tables can be written to and read from a small binary file, so the events file only needs to be parsed once.
+ * <p>
+ * Travel times are the same as those of MATSim's TravelTimeCalculator with its default averaging getter and
+ * optimistic aggregator: only vehicles of the analyzed modes are counted, bins without observations return the free
+ * speed travel time, and the travel time of a bin is raised to at least the travel time of the previous bin minus the
+ * bin size. Other getters and aggregators of the travel time calculator config are not supported, and averages are
+ * kept as floats.
+ */
+final class LinkTravelTimeTable implements TravelTime {
+
+    private final static Logger logger = Logger.getLogger(LinkTravelTimeTable.class);
+
+    private static final int MAGIC = 0x4c54544d;
+
+    private final Map<Id<Link>, Integer> linkIndex = new HashMap<>();
+    private final int binSize_s;
+    private final int numberOfBins;
+    // by link index * numberOfBins + bin, NaN if there was no observation
+    private final float[] travelTimes;
+
+    private LinkTravelTimeTable(Network network, int binSize_s, int maxTime_s) {
+        // sorted, so that stored tables can be read back independently of the iteration order of the network
+        List<Id<Link>> linkIds = new ArrayList<>(network.getLinks().keySet());
+        Collections.sort(linkIds);
+        for (int index = 0; index < linkIds.size(); index++) {
+            linkIndex.put(linkIds.get(index), index);
+        }
+        this.binSize_s = binSize_s;
+        this.numberOfBins = maxTime_s / binSize_s + 1;
+        this.travelTimes = new float[linkIndex.size() * numberOfBins];
+    }
+
+    /**
+     * Parses the (optionally gzipped) events file once. A vehicle's travel time on a link is counted in the bin
+     * in which it entered the link, vehicles that leave traffic or abort on a link are not counted.
+     * @param analyzedModes network modes whose vehicles are counted, or null to count all vehicles
+     */
+    static LinkTravelTimeTable fromEvents(Network network, String eventsFile, int binSize_s, int maxTime_s,
+                                          Set<String> analyzedModes) {
+        LinkTravelTimeTable table = new LinkTravelTimeTable(network, binSize_s, maxTime_s);
+        Map<String, Integer> linkIndexById = new HashMap<>();
+        for (Map.Entry<Id<Link>, Integer> entry : table.linkIndex.entrySet()) {
+            linkIndexById.put(entry.getKey().toString(), entry.getValue());
+        }
+        double[] sums = new double[table.travelTimes.length];
+        int[] counts = new int[table.travelTimes.length];
+        Map<String, double[]> entries = new HashMap<>();
+        Set<String> ignoredVehicles = new HashSet<>();
+        long numberOfEvents = 0;
+
+        try (InputStream in = open(eventsFile)) {
+            XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT || !"event".equals(reader.getLocalName())) {
+                    continue;
+                }
+                String type = reader.getAttributeValue(null, "type");
+                boolean enter = "entered link".equals(type);
+                boolean leave = "left link".equals(type);
+                boolean entersTraffic = "vehicle enters traffic".equals(type);
+                boolean leavesTraffic = "vehicle leaves traffic".equals(type);
+                if (!enter && !leave && !entersTraffic && !leavesTraffic && !"vehicle aborts".equals(type)) {
+                    continue;
+                }
+                numberOfEvents++;
+                String vehicle = reader.getAttributeValue(null, "vehicle");
+                if (vehicle == null) {
+                    vehicle = reader.getAttributeValue(null, "person");
+                }
+                if (entersTraffic) {
+                    if (analyzedModes != null && !analyzedModes.contains(reader.getAttributeValue(null, "networkMode"))) {
+                        ignoredVehicles.add(vehicle);
+                    }
+                    continue;
+                }
+                if (leavesTraffic) {
+                    ignoredVehicles.remove(vehicle);
+                }
+                if (!enter) {
+                    double[] entry = entries.remove(vehicle);
+                    if (leave && entry != null) {
+                        int cell = (int) entry[0];
+                        sums[cell] += Double.parseDouble(reader.getAttributeValue(null, "time")) - entry[1];
+                        counts[cell]++;
+                    }
+                    continue;
+                }
+                Integer link = linkIndexById.get(reader.getAttributeValue(null, "link"));
+                if (link == null || ignoredVehicles.contains(vehicle)) {
+                    entries.remove(vehicle);
+                    continue;
+                }
+                double time = Double.parseDouble(reader.getAttributeValue(null, "time"));
+                double[] entry = entries.computeIfAbsent(vehicle, v -> new double[2]);
+                entry[0] = link * table.numberOfBins + table.bin(time);
+                entry[1] = time;
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new RuntimeException("Could not replay events file " + eventsFile, e);
+        }
+
+        for (int cell = 0; cell < sums.length; cell++) {
+            table.travelTimes[cell] = counts[cell] == 0 ? Float.NaN : (float) (sums[cell] / counts[cell]);
+        }
+        table.consolidate(network);
+        logger.info("Replayed " + numberOfEvents + " link events of " + eventsFile);
+        return table;
+    }
+
+    /**
+     * @return the table or null if the file does not exist or does not match the network and bins
+     */
+    static LinkTravelTimeTable read(Network network, Path file, int binSize_s, int maxTime_s) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        LinkTravelTimeTable table = new LinkTravelTimeTable(network, binSize_s, maxTime_s);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != table.linkIndex.size()
+                    || in.readInt() != binSize_s || in.readInt() != table.numberOfBins) {
+                logger.warn("Ignoring link travel time file " + file + " that does not match network or time bins.");
+                return null;
+            }
+            for (int i = 0; i < table.travelTimes.length; i++) {
+                table.travelTimes[i] = in.readFloat();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read link travel time file " + file + ": " + e.getMessage());
+            return null;
+        }
+        return table;
+    }
+
+    void write(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(linkIndex.size());
+                out.writeInt(binSize_s);
+                out.writeInt(numberOfBins);
+                for (float travelTime : travelTimes) {
+                    out.writeFloat(travelTime);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not write link travel time file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Vehicles leave a link in the order they entered it, so a vehicle entering one bin later cannot arrive more than
+     * one bin earlier. Travel times that are lower than this are raised, as in the travel time calculator.
+     */
+    private void consolidate(Network network) {
+        for (Map.Entry<Id<Link>, Integer> entry : linkIndex.entrySet()) {
+            Link link = network.getLinks().get(entry.getKey());
+            int firstCell = entry.getValue() * numberOfBins;
+            double previousTravelTime = travelTimeOrFreeSpeed(link, firstCell, 0);
+            for (int bin = 1; bin < numberOfBins; bin++) {
+                double travelTime = travelTimeOrFreeSpeed(link, firstCell + bin, bin * binSize_s);
+                double minTravelTime = previousTravelTime - binSize_s;
+                if (travelTime < minTravelTime) {
+                    travelTimes[firstCell + bin] = (float) minTravelTime;
+                    previousTravelTime = minTravelTime;
+                } else {
+                    previousTravelTime = travelTime;
+                }
+            }
+        }
+    }
+
+    private double travelTimeOrFreeSpeed(Link link, int cell, double time) {
+        float travelTime = travelTimes[cell];
+        return Float.isNaN(travelTime) ? link.getLength() / link.getFreespeed(time) : travelTime;
+    }
+
+    @Override
+    public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+        Integer index = linkIndex.get(link.getId());
+        if (index != null) {
+            float travelTime = travelTimes[index * numberOfBins + bin(time)];
+            if (!Float.isNaN(travelTime)) {
+                return travelTime;
+            }
+        }
+        return link.getLength() / link.getFreespeed(time);
+    }
+
+    private int bin(double time) {
+        return Math.min(Math.max(0, (int) (time / binSize_s)), numberOfBins - 1);
+    }
+
+    private static InputStream open(String file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+        return file.endsWith(".gz") ? new BufferedInputStream(new GZIPInputStream(in, 1 << 16), 1 << 16) : in;
+    }
+}
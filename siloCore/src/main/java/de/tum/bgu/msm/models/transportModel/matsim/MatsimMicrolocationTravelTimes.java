@@ -0,0 +1,147 @@
+package de.tum.bgu.msm.models.transportModel.matsim;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import de.tum.bgu.msm.utils.LruCache;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.utils.leastcostpathtree.LeastCostPathTree;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Car travel times between coordinates on the MATSim network.
+ * Every coordinate is snapped once to the network node it is routed from. The travel times from an origin node
+ * to all nodes of the network are calculated with a single least cost path tree and kept as a compact array
+ * in a bounded cache, so further queries from the same origin are simple lookups. Access to and egress from
+ * the network are added as walks on the beeline distance to the snapped nodes. Destinations that cannot be reached
+ * on the network have an infinite travel time.
+ */
+final class MatsimMicrolocationTravelTimes {
+
+    /**
+     * Defaults of MATSim for teleported walks.
+     */
+    private static final double BEELINE_DISTANCE_FACTOR = 1.3;
+    private static final double WALK_SPEED_M_S = 3. / 3.6;
+
+    private final Network network;
+    private final TravelTime travelTime;
+    private final TravelDisutility travelDisutility;
+
+    private final Map<Id<Node>, Integer> nodeIndex = new HashMap<>();
+    private final Map<Coordinate, Node> nodeByCoordinate = new ConcurrentHashMap<>();
+    private final LruCache<OriginKey, double[]> travelTimesByOrigin;
+
+    MatsimMicrolocationTravelTimes(Network network, TravelTime travelTime, TravelDisutility travelDisutility, long cacheBudget_bytes) {
+        this.network = network;
+        this.travelTime = travelTime;
+        this.travelDisutility = travelDisutility;
+        int index = 0;
+        for (Id<Node> nodeId : network.getNodes().keySet()) {
+            nodeIndex.put(nodeId, index++);
+        }
+        this.travelTimesByOrigin = new LruCache<>("node travel times", 0, cacheBudget_bytes, times -> 8L * times.length);
+    }
+
+    /**
+     * @return travel time in minutes, or {@link Double#POSITIVE_INFINITY} if the destination cannot be reached
+     */
+    double getTravelTime(Coordinate origin, Coordinate destination, double timeOfDay_s) {
+        Node originNode = snap(origin);
+        double[] travelTimes = getTravelTimesFromNode(originNode, timeOfDay_s);
+        return getTravelTime(origin, originNode, travelTimes, destination);
+    }
+
+    /**
+     * Answers several queries from the same origin with a single tree.
+     * @return travel times in minutes, in the order of the destinations, infinite for unreachable destinations
+     */
+    double[] getTravelTimes(Coordinate origin, Coordinate[] destinations, double timeOfDay_s) {
+        Node originNode = snap(origin);
+        double[] travelTimes = getTravelTimesFromNode(originNode, timeOfDay_s);
+        double[] result = new double[destinations.length];
+        for (int i = 0; i < destinations.length; i++) {
+            result[i] = getTravelTime(origin, originNode, travelTimes, destinations[i]);
+        }
+        return result;
+    }
+
+    void logStatistics() {
+        travelTimesByOrigin.logStatistics();
+    }
+
+    private double getTravelTime(Coordinate origin, Node originNode, double[] travelTimesFromOrigin, Coordinate destination) {
+        Node destinationNode = snap(destination);
+        double networkTime_s = travelTimesFromOrigin[nodeIndex.get(destinationNode.getId())];
+        double time_s = walkTime_s(origin, originNode) + networkTime_s + walkTime_s(destination, destinationNode);
+        return time_s / 60.;
+    }
+
+    private Node snap(Coordinate coordinate) {
+        return nodeByCoordinate.computeIfAbsent(coordinate,
+                c -> NetworkUtils.getNearestLink(network, new Coord(c.x, c.y)).getToNode());
+    }
+
+    private static double walkTime_s(Coordinate coordinate, Node node) {
+        double distance_m = CoordUtils.calcEuclideanDistance(new Coord(coordinate.x, coordinate.y), node.getCoord());
+        return distance_m * BEELINE_DISTANCE_FACTOR / WALK_SPEED_M_S;
+    }
+
+    /**
+     * Trees are calculated outside of the cache lock, so different origins can be routed in parallel.
+     * Two threads asking for the same new origin at once may both route it.
+     */
+    private double[] getTravelTimesFromNode(Node originNode, double timeOfDay_s) {
+        OriginKey key = new OriginKey(originNode.getId(), timeOfDay_s);
+        double[] travelTimes = travelTimesByOrigin.get(key);
+        if (travelTimes == null) {
+            LeastCostPathTree leastCostPathTree = new LeastCostPathTree(travelTime, travelDisutility);
+            leastCostPathTree.calculate(network, originNode, timeOfDay_s);
+            travelTimes = new double[nodeIndex.size()];
+            // nodes missing in the tree cannot be reached from the origin
+            Arrays.fill(travelTimes, Double.POSITIVE_INFINITY);
+            for (Map.Entry<Id<Node>, LeastCostPathTree.NodeData> entry : leastCostPathTree.getTree().entrySet()) {
+                travelTimes[nodeIndex.get(entry.getKey())] = entry.getValue().getTime() - timeOfDay_s;
+            }
+            travelTimesByOrigin.put(key, travelTimes);
+        }
+        return travelTimes;
+    }
+
+    private static final class OriginKey {
+        private final Id<Node> node;
+        private final double timeOfDay_s;
+
+        private OriginKey(Id<Node> node, double timeOfDay_s) {
+            this.node = node;
+            this.timeOfDay_s = timeOfDay_s;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof OriginKey)) {
+                return false;
+            }
+            OriginKey other = (OriginKey) o;
+            return timeOfDay_s == other.timeOfDay_s && node.equals(other.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(node, timeOfDay_s);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package de.tum.bgu.msm.models.transportModel.matsim;
+
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import de.tum.bgu.msm.data.Zone;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
+import de.tum.bgu.msm.util.matrices.Matrices;
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.utils.leastcostpathtree.LeastCostPathTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds zone-to-zone car travel time skims (in minutes) on the MATSim network.
+ * The origin zones are split into one chunk per thread. Every chunk runs its own least cost path tree
+ * against the shared network and link travel times and writes into its own rows of a single dense matrix,
+ * so no tree has to be kept after its row is filled.
+ */
+final class MatsimSkimCreator {
+
+    private final static Logger logger = Logger.getLogger(MatsimSkimCreator.class);
+
+    private final Network network;
+    private final TravelTime travelTime;
+    private final TravelDisutility travelDisutility;
+    private final Map<Zone, List<Node>> zoneCalculationNodesMap;
+    private final int numberOfCalcPoints;
+    private final int numberOfThreads;
+
+    MatsimSkimCreator(Network network, TravelTime travelTime, TravelDisutility travelDisutility,
+                      Map<Zone, List<Node>> zoneCalculationNodesMap, int numberOfCalcPoints, int numberOfThreads) {
+        this.network = network;
+        this.travelTime = travelTime;
+        this.travelDisutility = travelDisutility;
+        this.zoneCalculationNodesMap = zoneCalculationNodesMap;
+        this.numberOfCalcPoints = numberOfCalcPoints;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+    }
+
+    /**
+     * Builds the skims of several times of day in one pass over the origins, i.e. with a single split into tasks.
+     * @return one skim per time of day, in the given order
+     */
+    DoubleMatrix2D[] createCarSkims(Collection<Zone> zones, double[] timesOfDay_s) {
+        logger.info("  Creating car skims for " + zones.size() + " zones at " + Arrays.toString(timesOfDay_s) + "s using " + numberOfThreads + " threads.");
+        final DoubleMatrix2D[] skims = new DoubleMatrix2D[timesOfDay_s.length];
+        for (int t = 0; t < timesOfDay_s.length; t++) {
+            skims[t] = Matrices.doubleMatrix2D(zones, zones);
+        }
+        final List<Zone> origins = new ArrayList<>(zones);
+        final int chunkSize = Math.max(1, (origins.size() + numberOfThreads - 1) / numberOfThreads);
+
+        ConcurrentExecutor executor = ConcurrentExecutor.cachedService();
+        for (int start = 0; start < origins.size(); start += chunkSize) {
+            final List<Zone> chunk = origins.subList(start, Math.min(start + chunkSize, origins.size()));
+            executor.addTaskToQueue(() -> {
+                LeastCostPathTree leastCostPathTree = new LeastCostPathTree(travelTime, travelDisutility);
+                for (Zone origin : chunk) {
+                    for (Node originNode : zoneCalculationNodesMap.get(origin)) { // Several points in a given origin zone
+                        for (int t = 0; t < timesOfDay_s.length; t++) {
+                            final double timeOfDay_s = timesOfDay_s[t];
+                            final DoubleMatrix2D skim = skims[t];
+                            leastCostPathTree.calculate(network, originNode, timeOfDay_s);
+                            Map<Id<Node>, LeastCostPathTree.NodeData> tree = leastCostPathTree.getTree();
+                            for (Zone destination : zones) {
+                                double sumTravelTime_min = 0.;
+                                for (Node destinationNode : zoneCalculationNodesMap.get(destination)) { // Several points in a given destination zone
+                                    double arrivalTime_s = tree.get(destinationNode.getId()).getTime();
+                                    sumTravelTime_min += ((arrivalTime_s - timeOfDay_s) / 60.);
+                                }
+                                final int originId = origin.getZoneId();
+                                final int destinationId = destination.getZoneId();
+                                skim.setQuick(originId, destinationId, skim.getQuick(originId, destinationId) + sumTravelTime_min / numberOfCalcPoints);
+                            }
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        executor.execute();
+        return skims;
+    }
+}
@@ -23,16 +23,14 @@ package de.tum.bgu.msm.models.transportModel.matsim;
 import de.tum.bgu.msm.container.SiloDataContainer;
 import de.tum.bgu.msm.models.transportModel.TransportModelI;
 import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.utils.BinarySkimCache;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationWriter;
-import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.internal.MatsimWriter;
 import org.matsim.core.config.Config;
 import org.matsim.core.controler.Controler;
-import org.matsim.core.events.EventsUtils;
-import org.matsim.core.events.MatsimEventsReader;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.io.MatsimNetworkReader;
 import org.matsim.core.router.TripRouter;
@@ -42,11 +40,16 @@ import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.scenario.MutableScenario;
 import org.matsim.core.scenario.ScenarioUtils;
-import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
-import org.matsim.utils.leastcostpathtree.LeastCostPathTree;
+import org.matsim.core.utils.collections.CollectionUtils;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 //import GeoDataMuc;
 //import de.tum.bgu.msm.data.travelTimes.TravelTimes;
@@ -84,6 +87,15 @@ public final class MatsimTransportModel implements TransportModelI  {
 
 	@Override
 	public void runTransportModel(int year) {
+		prepareTransportModel(year).get().run();
+	}
+
+	/**
+	 * The MATSim config and population are created from the SILO data right away; the MATSim run and the
+	 * calculation of link travel times only depend on them.
+	 */
+	@Override
+	public Supplier<Runnable> prepareTransportModel(int year) {
 		LOG.warn("Running MATSim transport model for year " + year + ".");
 
 		String scenarioName = properties.main.scenarioName;
@@ -114,42 +126,66 @@ public final class MatsimTransportModel implements TransportModelI  {
     		populationWriter.write("./test/scenarios/annapolis_reduced/matsim_output/population_" + year + ".xml");
     	}
 
+		return () -> {
+//			config.plansCalcRoute().setInsertingAccessEgressWalk(true);
+			MutableScenario scenario = (MutableScenario) ScenarioUtils.loadScenario(config);
+			scenario.setPopulation(population);
 
-//		config.plansCalcRoute().setInsertingAccessEgressWalk(true);
-		MutableScenario scenario = (MutableScenario) ScenarioUtils.loadScenario(config);
-		scenario.setPopulation(population);
-		
-		final Controler controler = new Controler(scenario);
-		
-		controler.run();
-		LOG.warn("Running MATSim transport model for year " + year + " finished.");
-
-		// Get travel Times from MATSim
-		LOG.warn("Using MATSim to compute travel times from zone to zone.");
-		TravelTime travelTime = controler.getLinkTravelTimes();
-        TravelDisutility travelDisutility = controler.getTravelDisutilityFactory().createTravelDisutility(travelTime);
-        updateTravelTimes(controler.getTripRouterProvider().get(), travelTime, travelDisutility);
+			final Controler controler = new Controler(scenario);
+
+			controler.run();
+			LOG.warn("Running MATSim transport model for year " + year + " finished.");
+
+			// Get travel Times from MATSim
+			LOG.warn("Using MATSim to compute travel times from zone to zone.");
+			TravelTime travelTime = controler.getLinkTravelTimes();
+			TravelDisutility travelDisutility = controler.getTravelDisutilityFactory().createTravelDisutility(travelTime);
+			TripRouter tripRouter = controler.getTripRouterProvider().get();
+			return () -> updateTravelTimes(tripRouter, travelTime, travelDisutility);
+		};
 	}
 
     /**
-     *
+     * Restores link travel times of an earlier MATSim run from its events file. If a skim cache directory is set,
+     * the link travel time table is stored there and read back on later runs instead of parsing the events again.
      * @param eventsFile
      */
 	public void replayFromEvents(String eventsFile) {
         MutableScenario scenario = (MutableScenario) ScenarioUtils.loadScenario(initialMatsimConfig);
 //        initialMatsimConfig.plansCalcRoute().setInsertingAccessEgressWalk(true);
-	    TravelTimeCalculator ttCalculator = TravelTimeCalculator.create(scenario.getNetwork(), scenario.getConfig().travelTimeCalculator());
-        EventsManager events = EventsUtils.createEventsManager();
-        events.addHandler(ttCalculator);
-        (new MatsimEventsReader(events)).readFile(eventsFile);
+        int binSize_s = scenario.getConfig().travelTimeCalculator().getTraveltimeBinSize();
+        int maxTime_s = scenario.getConfig().travelTimeCalculator().getMaxTime();
+        // read as strings, as the type of the analyzed modes differs between MATSim versions
+        Map<String, String> travelTimeParams = scenario.getConfig().travelTimeCalculator().getParams();
+        Set<String> analyzedModes = Boolean.parseBoolean(travelTimeParams.get("filterModes")) ?
+                new TreeSet<>(CollectionUtils.stringToSet(travelTimeParams.get("analyzedModes"))) : null;
+        String inputFingerprint = null;
+        LinkTravelTimeTable travelTime = null;
+        Path tableFile = null;
+        if (properties.transportModel.matsimSkimCacheDirectory != null) {
+            File events = new File(eventsFile);
+            // the events file is identified by name, size and date, so it does not have to be read to find the table
+            inputFingerprint = BinarySkimCache.fingerprint(
+                    new File(initialMatsimConfig.network().getInputFileURL(initialMatsimConfig.getContext()).getFile()),
+                    events.getAbsolutePath(), events.length(), events.lastModified(), binSize_s, maxTime_s, analyzedModes);
+            tableFile = Paths.get(properties.main.baseDirectory + properties.transportModel.matsimSkimCacheDirectory,
+                    inputFingerprint + ".linktt");
+            travelTime = LinkTravelTimeTable.read(scenario.getNetwork(), tableFile, binSize_s, maxTime_s);
+        }
+        if (travelTime == null) {
+            travelTime = LinkTravelTimeTable.fromEvents(scenario.getNetwork(), eventsFile, binSize_s, maxTime_s, analyzedModes);
+            if (tableFile != null) {
+                travelTime.write(tableFile);
+            }
+        } else {
+            LOG.info("Read link travel times of " + eventsFile + " from " + tableFile);
+        }
         TripRouter tripRouter = TripRouterFactoryBuilderWithDefaults.createDefaultTripRouterFactoryImpl(scenario).get();
-        TravelTime travelTime = ttCalculator.getLinkTravelTimes();
         TravelDisutility travelDisutility = new OnlyTimeDependentTravelDisutilityFactory().createTravelDisutility(travelTime);
-        updateTravelTimes(tripRouter, travelTime, travelDisutility);
+        travelTimes.update(tripRouter, travelTime, travelDisutility, inputFingerprint);
 	}
 
 	private void updateTravelTimes(TripRouter tripRouter, TravelTime travelTime, TravelDisutility disutility) {
-		LeastCostPathTree leastCoastPathTree = new LeastCostPathTree(travelTime, disutility);
 //
 ////		travelTimes.update(leastCoastPathTree, zoneFeatureMap, scenario.getNetwork(), controler.getTripRouterProvider().get() );
 //		// for now, pt inforamtion from MATSim not required as there are no changes in PT supply (schedule) expected currently;
@@ -161,7 +197,7 @@ public final class MatsimTransportModel implements TransportModelI  {
 //		if (config.transit().isUseTransit() && Properties.get().main.implementation == Implementation.MUNICH) {
 //			MatsimPTDistances matsimPTDistances = new MatsimPTDistances(config, scenario, (GeoDataMuc) dataContainer.getGeoData());
 //		}
-		travelTimes.update(tripRouter, leastCoastPathTree);
+		travelTimes.update(tripRouter, travelTime, disutility);
 //		tripRouter = controler.getTripRouterProvider().get();
 	}
 
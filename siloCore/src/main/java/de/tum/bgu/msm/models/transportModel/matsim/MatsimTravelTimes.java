@@ -1,7 +1,6 @@
 package de.tum.bgu.msm.models.transportModel.matsim;
 
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
 import com.vividsolutions.jts.geom.Coordinate;
 import de.tum.bgu.msm.data.Location;
 import de.tum.bgu.msm.data.MicroLocation;
@@ -10,6 +9,9 @@ import de.tum.bgu.msm.data.Zone;
 import de.tum.bgu.msm.data.travelTimes.SkimTravelTimes;
 import de.tum.bgu.msm.data.travelTimes.TravelTimes;
 import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.utils.BinarySkimCache;
+import de.tum.bgu.msm.utils.LruCache;
+import de.tum.bgu.msm.utils.RegionalTravelTimes;
 import de.tum.bgu.msm.utils.TravelTimeUtil;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
@@ -22,31 +24,63 @@ import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.router.TripRouter;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
 import org.matsim.facilities.Facility;
-import org.matsim.utils.leastcostpathtree.LeastCostPathTree;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 public final class MatsimTravelTimes implements TravelTimes {
 	private final static Logger logger = Logger.getLogger(MatsimTravelTimes.class);
 
 	private SkimTravelTimes delegate = new SkimTravelTimes() ;
-	private LeastCostPathTree leastCoastPathTree;
+	private MatsimSkimCreator skimCreator;
+	private MatsimMicrolocationTravelTimes microlocationTravelTimes;
 	private Network network;
 	private TripRouter tripRouter;
 	private final Map<Zone, List<Node>> zoneCalculationNodesMap = new HashMap<>();
 	private final static int NUMBER_OF_CALC_POINTS = 1;
-	private final Map<Id<Node>, Map<Double, Map<Id<Node>, LeastCostPathTree.NodeData>>> treesForNodesByTimes = new HashMap<>();
+	private final static double DAY_s = 24 * 60 * 60;
+	private final double[] periods_s = Properties.get().transportModel.matsimSkimPeriods_s;
+	private final LruCache<Double, DoubleMatrix2D> carSkimsByTime = new LruCache<>("car skims",
+			Properties.get().transportModel.matsimSkimCacheSize > 0 ?
+					Math.max(Properties.get().transportModel.matsimSkimCacheSize, periods_s.length) : 0,
+			Properties.get().transportModel.matsimSkimCacheBudget_MB * 1024L * 1024L,
+			skim -> 8L * skim.rows() * skim.columns());
 
-	private final Table<Zone, Region, Double> travelTimeToRegion = HashBasedTable.create();
+	private final BinarySkimCache skimFileCache = Properties.get().transportModel.matsimSkimCacheDirectory == null ? null
+			: new BinarySkimCache(Properties.get().main.baseDirectory + Properties.get().transportModel.matsimSkimCacheDirectory);
+	private String inputFingerprint;
+
+	// by mode and skim period
+	private final Map<String, RegionalTravelTimes> regionalTravelTimes = new ConcurrentHashMap<>();
 
 	public MatsimTravelTimes() {
 	}
 
-	void update(TripRouter tripRouter, LeastCostPathTree leastCoastPathTree) {
+	void update(TripRouter tripRouter, TravelTime travelTime, TravelDisutility disutility) {
+		update(tripRouter, travelTime, disutility, null);
+	}
+
+	/**
+	 * @param inputFingerprint fingerprint of the network and link travel times, which allows to store car skims in and load
+	 *                         them from the skim file cache. Null if the travel times cannot be reproduced from input files.
+	 */
+	void update(TripRouter tripRouter, TravelTime travelTime, TravelDisutility disutility, String inputFingerprint) {
 		this.tripRouter = tripRouter;
-		this.leastCoastPathTree = leastCoastPathTree;
-		this.treesForNodesByTimes.clear();
+		this.inputFingerprint = inputFingerprint;
+		this.skimCreator = new MatsimSkimCreator(network, travelTime, disutility, zoneCalculationNodesMap,
+				NUMBER_OF_CALC_POINTS, Properties.get().transportModel.matsimGlobalThreads);
+		carSkimsByTime.logStatistics();
+		carSkimsByTime.clear();
+		if (microlocationTravelTimes != null) {
+			microlocationTravelTimes.logStatistics();
+		}
+		this.microlocationTravelTimes = new MatsimMicrolocationTravelTimes(network, travelTime, disutility,
+				Properties.get().transportModel.matsimNodeTreeCacheBudget_MB * 1024L * 1024L);
+		this.regionalTravelTimes.clear();
 		TravelTimeUtil.updateTransitSkim(delegate,
 				Properties.get().main.startYear, Properties.get());
 	}
@@ -70,36 +104,89 @@ public final class MatsimTravelTimes implements TravelTimes {
 
 	private double getZoneToZoneTravelTime(Zone origin, Zone destination, double timeOfDay_s, String mode) {
 		if(TransportMode.car.equals(mode)) {
-			double sumTravelTime_min = 0.;
-			for (Node originNode : zoneCalculationNodesMap.get(origin)) { // Several points in a given origin zone
-				Map<Id<Node>, LeastCostPathTree.NodeData> tree;
-				if (treesForNodesByTimes.containsKey(originNode.getId())) {
-					Map<Double, Map<Id<Node>, LeastCostPathTree.NodeData>> treesForOneNodeByTimes = treesForNodesByTimes.get(originNode.getId());
-					if (treesForOneNodeByTimes.containsKey(timeOfDay_s)) {
-						tree = treesForOneNodeByTimes.get(timeOfDay_s);
-					} else {
-						leastCoastPathTree.calculate(network, originNode, timeOfDay_s);
-						tree = leastCoastPathTree.getTree();
-						treesForOneNodeByTimes.put(timeOfDay_s, tree);
+			return getCarSkim(timeOfDay_s).getQuick(origin.getZoneId(), destination.getZoneId());
+		} else {			
+			//TODO: reconsider matsim pt travel times. nk apr'18
+            return delegate.getTravelTime(origin, destination, timeOfDay_s, mode);
+		}
+	}
+
+	/**
+	 * Returns the zone-to-zone car skim for the period nearest to the given time of day. Missing skims of all periods
+	 * are built together for all zones on first request.
+	 * Only a bounded number of skims is kept, see {@link de.tum.bgu.msm.properties.modules.TransportModelPropertiesModule#matsimSkimCacheSize}.
+	 */
+	private DoubleMatrix2D getCarSkim(double timeOfDay_s) {
+		final double period_s = snapToPeriod(timeOfDay_s);
+		synchronized (carSkimsByTime) {
+			DoubleMatrix2D skim = carSkimsByTime.get(period_s);
+			if (skim == null) {
+				double[] missingTimes_s = Arrays.stream(periods_s).filter(time -> !carSkimsByTime.contains(time)).toArray();
+				DoubleMatrix2D[] skims = loadOrCreateCarSkims(missingTimes_s);
+				for (int i = 0; i < missingTimes_s.length; i++) {
+					carSkimsByTime.put(missingTimes_s[i], skims[i]);
+					if (missingTimes_s[i] == period_s) {
+						skim = skims[i];
 					}
-				} else {
-					Map<Double, Map<Id<Node>, LeastCostPathTree.NodeData>> treesForOneNodeByTimes = new HashMap<>();
-					leastCoastPathTree.calculate(network, originNode, timeOfDay_s);
-					tree = leastCoastPathTree.getTree();
-					treesForOneNodeByTimes.put(timeOfDay_s, tree);
-					treesForNodesByTimes.put(originNode.getId(), treesForOneNodeByTimes);
 				}
+			}
+			return skim;
+		}
+	}
 
-				for (Node destinationNode : zoneCalculationNodesMap.get(destination)) { // Several points in a given destination zone
-					double arrivalTime_s = tree.get(destinationNode.getId()).getTime();
-					sumTravelTime_min += ((arrivalTime_s - timeOfDay_s) / 60.);
-				}
+	double snapToPeriod(double timeOfDay_s) {
+		return snapToPeriod(timeOfDay_s, periods_s);
+	}
+
+	/**
+	 * Snaps the time of day to the nearest of the (non-empty) skim periods on the 24 hour clock, so a time shortly
+	 * before midnight may snap to a period in the early morning.
+	 */
+	static double snapToPeriod(double timeOfDay_s, double[] periods_s) {
+		double nearest_s = periods_s[0];
+		double minDifference_s = Double.MAX_VALUE;
+		for (double period_s : periods_s) {
+			double difference_s = Math.abs(timeOfDay_s - period_s) % DAY_s;
+			difference_s = Math.min(difference_s, DAY_s - difference_s);
+			if (difference_s < minDifference_s) {
+				minDifference_s = difference_s;
+				nearest_s = period_s;
+			}
+		}
+		return nearest_s;
+	}
+
+	private DoubleMatrix2D[] loadOrCreateCarSkims(double[] timesOfDay_s) {
+		if (skimFileCache == null || inputFingerprint == null) {
+			return skimCreator.createCarSkims(zoneCalculationNodesMap.keySet(), timesOfDay_s);
+		}
+		// zones are routed from random nodes, which are thus part of the fingerprint
+		StringBuilder calculationNodes = new StringBuilder();
+		zoneCalculationNodesMap.entrySet().stream()
+				.sorted(Comparator.comparingInt(entry -> entry.getKey().getZoneId()))
+				.forEach(entry -> calculationNodes.append(entry.getKey().getZoneId()).append(':')
+						.append(entry.getValue().stream().map(node -> node.getId().toString()).collect(Collectors.joining(",")))
+						.append(';'));
+		DoubleMatrix2D[] skims = new DoubleMatrix2D[timesOfDay_s.length];
+		String[] fingerprints = new String[timesOfDay_s.length];
+		List<Integer> missing = new ArrayList<>();
+		for (int i = 0; i < timesOfDay_s.length; i++) {
+			fingerprints[i] = BinarySkimCache.fingerprint(inputFingerprint, timesOfDay_s[i], NUMBER_OF_CALC_POINTS, calculationNodes);
+			skims[i] = skimFileCache.load(fingerprints[i]);
+			if (skims[i] == null) {
+				missing.add(i);
+			}
+		}
+		if (!missing.isEmpty()) {
+			DoubleMatrix2D[] created = skimCreator.createCarSkims(zoneCalculationNodesMap.keySet(),
+					missing.stream().mapToDouble(i -> timesOfDay_s[i]).toArray());
+			for (int j = 0; j < created.length; j++) {
+				skims[missing.get(j)] = created[j];
+				// rounds the skim to floats, so it is used just like when it is loaded from the cache next time
+				skimFileCache.store(fingerprints[missing.get(j)], created[j]);
 			}
-			return sumTravelTime_min / NUMBER_OF_CALC_POINTS;
-		} else {			
-			//TODO: reconsider matsim pt travel times. nk apr'18
-            return delegate.getTravelTime(origin, destination, timeOfDay_s, mode);
 		}
+		return skims;
 	}
 
 	@Override
@@ -107,51 +194,80 @@ public final class MatsimTravelTimes implements TravelTimes {
 		if (origin instanceof MicroLocation && destination instanceof MicroLocation) { // Microlocations case
 			Coordinate originCoord = ((MicroLocation) origin).getCoordinate();
 			Coordinate destinationCoord = ((MicroLocation) destination).getCoordinate();
+			if (TransportMode.car.equals(mode)) {
+				return microlocationTravelTimes.getTravelTime(originCoord, destinationCoord, snapToPeriod(timeOfDay_s));
+			}
 			Facility fromFacility = new DummyFacility(new Coord(originCoord.x, originCoord.y));
 			Facility toFacility = new DummyFacility(new Coord(destinationCoord.x, destinationCoord.y));
 			org.matsim.api.core.v01.population.Person person = null;
 			List<? extends PlanElement> trip = tripRouter.calcRoute(mode, fromFacility, toFacility, timeOfDay_s, person);
 			double ttime = 0. ;
+			// leg travel times are in seconds, but travel times are returned in minutes as for car
 			for ( PlanElement pe : trip ) {
 				if ( pe instanceof Leg) {
 					ttime += ((Leg) pe).getTravelTime() ;
 				}
 			}
 			// TODO take care of relevant interaction activities
-			return ttime;
+			return ttime / 60.;
 		}
 		else if (origin instanceof Zone) { // Non-microlocations case
 			Zone originZone = (Zone) origin;
 			if (destination instanceof Zone) {
 				return getZoneToZoneTravelTime(originZone, (Zone) destination, timeOfDay_s, mode);
 			} else if (destination instanceof Region) {
-				Region destinationRegion = (Region) destination;
-				if (travelTimeToRegion.contains(originZone, destinationRegion)) {
-					return travelTimeToRegion.get(originZone, destinationRegion);
-				}
-				double min = Double.MAX_VALUE;
-        		for (Zone zoneInRegion : destinationRegion.getZones()) {
-        			double travelTime = getZoneToZoneTravelTime(originZone, zoneInRegion, timeOfDay_s, mode);
-        			if (travelTime < min) {
-        				min = travelTime;
-        			}
-        		}
-        		travelTimeToRegion.put(originZone, destinationRegion, min);
+				return getTravelTimeToRegion(originZone, (Region) destination, timeOfDay_s, mode);
 			}
 		}
 		throw new IllegalArgumentException("The combination with origin of type " + origin.getClass().getName() 
 					+ " and destination of type " + destination.getClass().getName() + " is not valid.");
 	}
 
+	/**
+	 * Travel times from one origin to several destinations. Car travel times between microlocations are
+	 * answered from a single tree of the origin, all other combinations are looked up one by one.
+	 * Travel times are in minutes, infinite for microlocations that cannot be reached by car.
+	 */
+	public double[] getTravelTimes(Location origin, List<? extends Location> destinations, double timeOfDay_s, String mode) {
+		if (origin instanceof MicroLocation && TransportMode.car.equals(mode)
+				&& destinations.stream().allMatch(destination -> destination instanceof MicroLocation)) {
+			Coordinate[] destinationCoords = new Coordinate[destinations.size()];
+			for (int i = 0; i < destinationCoords.length; i++) {
+				destinationCoords[i] = ((MicroLocation) destinations.get(i)).getCoordinate();
+			}
+			return microlocationTravelTimes.getTravelTimes(((MicroLocation) origin).getCoordinate(), destinationCoords, snapToPeriod(timeOfDay_s));
+		}
+		double[] travelTimes = new double[destinations.size()];
+		for (int i = 0; i < travelTimes.length; i++) {
+			travelTimes[i] = getTravelTime(origin, destinations.get(i), timeOfDay_s, mode);
+		}
+		return travelTimes;
+	}
+
 	@Override
 	public double getTravelTime(int origin, int destination, double timeOfDay_s, String mode) {
 		throw new IllegalArgumentException("Not implemented in MATSim case.");
 	}
 
+	/**
+	 * Minimum travel time from the zone of the origin to any zone of the region. For every mode and skim period, the
+	 * travel times from all zones to all regions are calculated together and in parallel on first request.
+	 * Thread safe, but updating the travel times must not happen concurrently.
+	 */
 	@Override
 	public double getTravelTimeToRegion(Location origin, Region destination, double timeOfDay_s, String mode) {
-		// TODO Auto-generated method stub
-		return 0;
+		final double period_s = TransportMode.car.equals(mode) ? snapToPeriod(timeOfDay_s) : timeOfDay_s;
+		return regionalTravelTimes.computeIfAbsent(mode + "@" + period_s, key -> {
+			final Set<Zone> zones = zoneCalculationNodesMap.keySet();
+			final Set<Region> regions = zones.stream().map(Zone::getRegion).collect(Collectors.toCollection(LinkedHashSet::new));
+			if (TransportMode.car.equals(mode)) {
+				final DoubleMatrix2D skim = getCarSkim(period_s);
+				return RegionalTravelTimes.minimumOverZones(zones, regions,
+						(originZone, destinationZone) -> skim.getQuick(originZone.getZoneId(), destinationZone.getZoneId()));
+			}
+			return RegionalTravelTimes.minimumOverZones(zones, regions,
+					(originZone, destinationZone) -> delegate.getTravelTime(originZone, destinationZone, period_s, mode));
+		}).getTravelTime(origin.getZoneId(), destination.getId());
 	}
 
 	private static class DummyFacility implements Facility {
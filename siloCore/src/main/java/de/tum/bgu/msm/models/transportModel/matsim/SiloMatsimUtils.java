@@ -5,7 +5,6 @@ import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.GeometryFactory;
 import de.tum.bgu.msm.utils.SiloUtil;
 import de.tum.bgu.msm.container.SiloDataContainer;
-import de.tum.bgu.msm.data.HouseholdDataManager;
 import de.tum.bgu.msm.data.JobDataManager;
 import de.tum.bgu.msm.data.MicroLocation;
 import de.tum.bgu.msm.data.dwelling.Dwelling;
@@ -14,6 +13,9 @@ import de.tum.bgu.msm.data.household.HouseholdUtil;
 import de.tum.bgu.msm.data.job.Job;
 import de.tum.bgu.msm.data.person.Occupation;
 import de.tum.bgu.msm.data.person.Person;
+import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.properties.modules.TransportModelPropertiesModule;
+import de.tum.bgu.msm.util.concurrent.ConcurrentExecutor;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
@@ -33,8 +35,10 @@ import org.matsim.core.controler.OutputDirectoryHierarchy.OverwriteFileSetting;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.utils.collections.Tuple;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 //import com.vividsolutions.jts.geom.*;
 
@@ -90,10 +94,21 @@ public class SiloMatsimUtils {
 		workActivity.setTypicalDuration(8*60*60);
 		config.planCalcScore().addActivityParams(workActivity);
 		
-		config.qsim().setNumberOfThreads(1);
-		config.global().setNumberOfThreads(1);
-		config.parallelEventHandling().setNumberOfThreads(1);
-		config.qsim().setUsingThreadpool(false);
+		TransportModelPropertiesModule transportProperties = Properties.get().transportModel;
+		config.qsim().setNumberOfThreads(transportProperties.matsimQsimThreads);
+		config.global().setNumberOfThreads(transportProperties.matsimGlobalThreads);
+		config.parallelEventHandling().setNumberOfThreads(transportProperties.matsimEventHandlingThreads);
+		if (transportProperties.matsimDeterministic) {
+			// Partitions of the qsim are bound to fixed threads and events are processed in order of simulation steps,
+			// so a run only depends on the seed and the number of threads
+			config.qsim().setUsingThreadpool(false);
+			config.parallelEventHandling().setSynchronizeOnSimSteps(true);
+			if (Properties.get().main.randomSeed != -1) {
+				config.global().setRandomSeed(Properties.get().main.randomSeed);
+			}
+		}
+		LOG.info("MATSim uses " + transportProperties.matsimQsimThreads + " qsim threads, " + transportProperties.matsimGlobalThreads
+				+ " global threads and " + transportProperties.matsimEventHandlingThreads + " event handling threads.");
 		
 		// TODO is this required?
 		AccessibilityConfigGroup accessibilityConfigGroup = ConfigUtils.addOrGetModule(config, AccessibilityConfigGroup.GROUP_NAME, AccessibilityConfigGroup.class);
@@ -107,17 +122,55 @@ public class SiloMatsimUtils {
 
 //	public static Population createMatsimPopulation(Config config, SiloDataContainer dataContainer,
 //			Map<Integer,SimpleFeature> zoneFeatureMap, double scalingFactor) {
+	/**
+	 * Creates the commuters of the MATSim population. Households are split into one chunk per thread and every household
+	 * draws from its own random object derived from a single seed and the household id, so the population does not
+	 * depend on the number of threads. Persons are added to the population in order of the households.
+	 */
 	public static Population createMatsimPopulation(Config config, SiloDataContainer dataContainer, double scalingFactor) {
 		LOG.info("Starting creating a MATSim population.");
-		HouseholdDataManager householdData = dataContainer.getHouseholdData();
-		Collection<Person> siloPersons = householdData.getPersons();
-    	
-    	Population matsimPopulation = PopulationUtils.createPopulation(config);
-    	PopulationFactory matsimPopulationFactory = matsimPopulation.getFactory();
-
-    	JobDataManager jobData = dataContainer.getJobData();
-    	for (Person siloPerson : siloPersons) {
-    		if (SiloUtil.getRandomNumberAsDouble() > scalingFactor) {
+		final List<Household> households = new ArrayList<>(dataContainer.getHouseholdData().getHouseholds());
+		final Population matsimPopulation = PopulationUtils.createPopulation(config);
+		final long seed = SiloUtil.getRandomObject().nextLong();
+
+		final int numberOfThreads = Math.max(1, Properties.get().transportModel.matsimGlobalThreads);
+		final int chunkSize = Math.max(1, (households.size() + numberOfThreads - 1) / numberOfThreads);
+		final List<List<org.matsim.api.core.v01.population.Person>> personsByChunk = new ArrayList<>();
+		ConcurrentExecutor executor = ConcurrentExecutor.cachedService();
+		for (int start = 0; start < households.size(); start += chunkSize) {
+			final List<Household> chunk = households.subList(start, Math.min(start + chunkSize, households.size()));
+			final List<org.matsim.api.core.v01.population.Person> persons = new ArrayList<>();
+			personsByChunk.add(persons);
+			executor.addTaskToQueue(() -> {
+				try {
+					for (Household household : chunk) {
+						Random random = new Random(mixSeed(seed, household.getId()));
+						SiloUtil.setThreadLocalRandom(random);
+						createCommutersOfHousehold(household, dataContainer, matsimPopulation.getFactory(), scalingFactor, random, persons);
+					}
+				} finally {
+					SiloUtil.clearThreadLocalRandom();
+				}
+				return null;
+			});
+		}
+		executor.execute();
+
+		for (List<org.matsim.api.core.v01.population.Person> persons : personsByChunk) {
+			for (org.matsim.api.core.v01.population.Person person : persons) {
+				matsimPopulation.addPerson(person);
+			}
+		}
+		LOG.info("Finished creating a MATSim population.");
+		return matsimPopulation;
+	}
+
+	private static void createCommutersOfHousehold(Household household, SiloDataContainer dataContainer,
+												   PopulationFactory matsimPopulationFactory, double scalingFactor, Random random,
+												   List<org.matsim.api.core.v01.population.Person> persons) {
+		JobDataManager jobData = dataContainer.getJobData();
+		for (Person siloPerson : household.getPersons().values()) {
+    		if (random.nextDouble() > scalingFactor) {
     			// e.g. if scalingFactor = 0.01, there will be a 1% chance that the loop is not
     			// continued in the next step, i.e. that the person is added to the population
     			continue;
@@ -132,8 +185,6 @@ public class SiloMatsimUtils {
     			continue;
     		}
 
-    		Household household = siloPerson.getHousehold();
-
     		int numberOfWorkers = HouseholdUtil.getNumberOfWorkers(household);
     		int numberOfAutos = household.getAutos();
     		if (numberOfWorkers == 0) {
@@ -141,7 +192,7 @@ public class SiloMatsimUtils {
     					+ " have been continued by finding that the given person is not employed!");
     		}
     		if ((double) numberOfAutos/numberOfWorkers < 1.) {
-    			if (SiloUtil.getRandomNumberAsDouble() > (double) numberOfAutos/numberOfWorkers) {
+    			if (random.nextDouble() > (double) numberOfAutos/numberOfWorkers) {
     				continue;
     			}
     		}
@@ -168,7 +219,7 @@ public class SiloMatsimUtils {
     		// Note: Do not confuse the SILO Person class with the MATSim Person class here
     		org.matsim.api.core.v01.population.Person matsimPerson = 
     				matsimPopulationFactory.createPerson(Id.create(siloPerson.getId(), org.matsim.api.core.v01.population.Person.class));
-    		matsimPopulation.addPerson(matsimPerson);
+    		persons.add(matsimPerson);
 
     		Plan matsimPlan = matsimPopulationFactory.createPlan();
     		matsimPerson.addPlan(matsimPlan);
@@ -178,7 +229,7 @@ public class SiloMatsimUtils {
 //    		Coord homeCoordinates = SiloMatsimUtils.getRandomCoordinateInGeometry(homeFeature);
 //    		Activity activity1 = matsimPopulationFactory.createActivityFromCoord("home", homeCoordinates);
     		Activity activity1 = matsimPopulationFactory.createActivityFromCoord("home", dwellingCoord);
-    		activity1.setEndTime(6 * 3600 + 3 * SiloUtil.getRandomNumberAsDouble() * 3600); // TODO Potentially change later
+    		activity1.setEndTime(6 * 3600 + 3 * random.nextDouble() * 3600); // TODO Potentially change later
     		matsimPlan.addActivity(activity1);
     		matsimPlan.addLeg(matsimPopulationFactory.createLeg(TransportMode.car)); // TODO Potentially change later
 
@@ -187,7 +238,7 @@ public class SiloMatsimUtils {
 //    		Coord workCoordinates = SiloMatsimUtils.getRandomCoordinateInGeometry(workFeature);
 //    		Activity activity2 = matsimPopulationFactory.createActivityFromCoord("work", workCoordinates);
     		Activity activity2 = matsimPopulationFactory.createActivityFromCoord("work", jobCoord);
-    		activity2.setEndTime(15 * 3600 + 3 * SiloUtil.getRandomNumberAsDouble() * 3600); // TODO Potentially change later
+    		activity2.setEndTime(15 * 3600 + 3 * random.nextDouble() * 3600); // TODO Potentially change later
     		matsimPlan.addActivity(activity2);
     		matsimPlan.addLeg(matsimPopulationFactory.createLeg(TransportMode.car)); // TODO Potentially change later
 
@@ -196,9 +247,17 @@ public class SiloMatsimUtils {
 
     		matsimPlan.addActivity(activity3);
     	}
-    	LOG.info("Finished creating a MATSim population.");
-    	return matsimPopulation;
     }
+
+	/**
+	 * Derives an independent seed for every agent from a common seed (finalizer of the SplitMix64 generator).
+	 */
+	private static long mixSeed(long seed, int id) {
+		long z = seed + (id + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 	
 //	public static final Coord getRandomCoordinateInGeometry(SimpleFeature feature) {
 //		Geometry geometry = (Geometry) feature.getDefaultGeometry();
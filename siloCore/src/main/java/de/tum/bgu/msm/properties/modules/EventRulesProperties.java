@@ -25,6 +25,41 @@ public class EventRulesProperties {
     public final boolean dwellingDemolition;
     public final boolean dwellingConstruction;
 
+    /**
+     * Process events of partitioned models in parallel before all remaining events. False by default.
+     * This changes the order of events: all events with a partition key are processed first, and all other
+     * events (moves, jobs, dwellings, persons without household) only afterwards, instead of being interleaved
+     * at random. Results therefore differ from serial runs with the same seed. For a given seed, they depend on
+     * {@link #parallelPartitions}, but not on the number of threads.
+     */
+    public final boolean parallelExecution;
+
+    /**
+     * Number of batches events are partitioned into in parallel mode. Results depend on this number,
+     * but not on the number of available threads.
+     */
+    public final int parallelPartitions;
+
+    /**
+     * Generate events lazily from the id ranges of streaming models and shuffle them on the fly
+     * instead of materializing all events of a year. False by default. Parallel execution collects all events
+     * of a year into batches, so memory is only saved if parallel execution is disabled.
+     */
+    public final boolean streamingEvents;
+
+    /**
+     * Store the events of a year as packed primitive longs (model and agent id) that are decoded at
+     * dispatch time. Only applies if streaming generation is disabled. False by default.
+     */
+    public final boolean packedEventQueue;
+
+    /**
+     * Simulate the relocation of all households in one batched phase before all other events instead of one
+     * move event per household. Households evaluate dwellings in parallel batches, the number of batches is
+     * given by {@link #parallelPartitions}. Dwellings are then assigned serially. False by default.
+     */
+    public final boolean batchedRelocation;
+
     public EventRulesProperties(ResourceBundle bundle) {
         PropertiesUtil.newPropertySubmodule("Event rule properties");
         allDemography = PropertiesUtil.getBooleanProperty(bundle, "event.all.demography", true);
@@ -45,5 +80,16 @@ public class EventRulesProperties {
         dwellingChangeQuality = PropertiesUtil.getBooleanProperty(bundle, "event.ddChangeQual", true);
         dwellingDemolition = PropertiesUtil.getBooleanProperty(bundle, "event.ddDemolition", true);
         dwellingConstruction = PropertiesUtil.getBooleanProperty(bundle, "event.ddConstruction", true);
+
+        PropertiesUtil.newPropertySubmodule("Event rules - parallel execution");
+        parallelExecution = PropertiesUtil.getBooleanProperty(bundle, "event.parallel.execution", false);
+        parallelPartitions = PropertiesUtil.getIntProperty(bundle, "event.parallel.partitions", 64);
+
+        PropertiesUtil.newPropertySubmodule("Event rules - streaming generation");
+        streamingEvents = PropertiesUtil.getBooleanProperty(bundle, "event.streaming.generation", false);
+        packedEventQueue = PropertiesUtil.getBooleanProperty(bundle, "event.packed.queue", false);
+
+        PropertiesUtil.newPropertySubmodule("Event rules - batched relocation");
+        batchedRelocation = PropertiesUtil.getBooleanProperty(bundle, "event.moves.batched", false);
     }
 }
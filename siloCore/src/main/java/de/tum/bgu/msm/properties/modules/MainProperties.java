@@ -22,6 +22,11 @@ public class MainProperties {
      */
     public final boolean trackTime;
 
+    /**
+     * Track latency histograms per event type and model phase (true or false)
+     */
+    public final boolean trackEventLatencies;
+
     /**
      * Path of the base directory. Set to the properties path by default.
      */
@@ -106,6 +111,7 @@ public class MainProperties {
 
         PropertiesUtil.newPropertySubmodule("Main - runtime tracking");
         trackTime = PropertiesUtil.getBooleanProperty(bundle, "track.time", true);
+        trackEventLatencies = PropertiesUtil.getBooleanProperty(bundle, "track.event.latencies", false);
 
         PropertiesUtil.newPropertySubmodule("Main - dwelling and income input data");
         incomeBrackets = PropertiesUtil.getIntPropertyArray(bundle,"income.brackets.hh.types", new int[]{20000,40000,60000}); //munich implementation
@@ -10,6 +10,18 @@ public class MovesProperties {
     public final double racialRelevanceInZone;
     public final boolean provideLowIncomeSubsidy;
 
+    /**
+     * Number of vacant dwellings a household evaluates in the selected region when searching for a new dwelling.
+     * Smaller samples make the search faster, larger samples make it closer to a choice among all vacant dwellings.
+     */
+    public final int dwellingSearchSampleSize;
+
+    /**
+     * Draw the vacant dwellings evaluated in a search in proportion to the vacant dwellings of each dwelling type
+     * in the region, instead of purely at random. False by default.
+     */
+    public final boolean dwellingSearchStratifiedByType;
+
 
     public final String populationControlTotal;
     public final String populationCOntrolTotalFile;
@@ -27,6 +39,10 @@ public class MovesProperties {
         racialRelevanceInZone = PropertiesUtil.getDoubleProperty(bundle, "relevance.of.race.in.zone.of.dwelling", 0.8);
         provideLowIncomeSubsidy = PropertiesUtil.getBooleanProperty(bundle, "provide.housing.subsidy.to.low.inc", false);
 
+        PropertiesUtil.newPropertySubmodule("Relocation properties - dwelling search");
+        dwellingSearchSampleSize = PropertiesUtil.getIntProperty(bundle, "dwelling.search.sample.size", 20);
+        dwellingSearchStratifiedByType = PropertiesUtil.getBooleanProperty(bundle, "dwelling.search.stratified.by.type", false);
+
 
     }
 }
@@ -9,7 +9,6 @@ public class RealEstateProperties {
     public final String dwellingsFileName;
     public final String dwellingsFinalFileName;
     public final String dwellingTypeAcresFile;
-    public final int maxStorageOfVacantDwellings;
     public final double[] structuralVacancy;
     public final boolean constructionOverwriteDwelling;
     public final boolean traceOverwriteDwellings;
@@ -27,7 +26,6 @@ public class RealEstateProperties {
         dwellingsFileName = PropertiesUtil.getStringProperty(bundle, "dwelling.file.ascii", "microData/dd");
         dwellingsFinalFileName = PropertiesUtil.getStringProperty(bundle, "dwelling.final.file.ascii", "microData/futureYears/dd");
         dwellingTypeAcresFile = PropertiesUtil.getStringProperty(bundle, "developer.acres.per.dwelling.by.type", "input/acresPerDwellingByType.csv");
-        maxStorageOfVacantDwellings = PropertiesUtil.getIntProperty(bundle, "vacant.dd.by.reg.array", 100000);
        structuralVacancy = PropertiesUtil.getDoublePropertyArray(bundle, "vacancy.rate.by.type", new double[]{0.01,0.03,0.05,0.04,0.03});
 
 
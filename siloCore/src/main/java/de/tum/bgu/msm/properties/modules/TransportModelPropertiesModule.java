@@ -19,6 +19,12 @@ public class TransportModelPropertiesModule {
      */
     public final Set<Integer> transportModelYears;
 
+    /**
+     * Run the transport model in the background while the next year is simulated. Travel times of a transport model year
+     * are then applied one year later. False by default.
+     */
+    public final boolean transportModelLagged;
+
     /**
      * Identifier for the transport model {@link TransportModelIdentifier}: MITO, MATSIM, NONE.
      */
@@ -44,6 +50,56 @@ public class TransportModelPropertiesModule {
      */
     public final double matsimWorkersShare;
 
+    /**
+     * Maximum number of car skims (one per time of day) kept in memory, 0 for no limit.
+     */
+    public final int matsimSkimCacheSize;
+
+    /**
+     * Memory budget in MB for the cached car skims, 0 for no limit. The least recently used skims are dropped first.
+     */
+    public final int matsimSkimCacheBudget_MB;
+
+    /**
+     * Times of day in seconds for which car skims are built together. Queries use the skim of the nearest period.
+     * By default, the night at 3:00, the AM peak at {@link #peakHour_s}, midday at 12:00 and the PM peak at 17:00.
+     * If set to an empty list, all queries use the skim of the peak hour.
+     */
+    public final double[] matsimSkimPeriods_s;
+
+    /**
+     * Memory budget in MB for the travel times from origin nodes to all network nodes that answer microlocation queries,
+     * 0 for no limit.
+     */
+    public final int matsimNodeTreeCacheBudget_MB;
+
+    /**
+     * Directory relative to the base directory in which car skims calculated from replayed events are stored and looked up
+     * by a fingerprint of network, events, time of day and zone system. Null (default) to always calculate skims.
+     */
+    public final String matsimSkimCacheDirectory;
+
+    /**
+     * Number of threads of the MATSim mobility simulation. By default the available cores, at most 8.
+     */
+    public final int matsimQsimThreads;
+
+    /**
+     * Number of threads for MATSim replanning and routing, also used to build the car skims. By default the available cores.
+     */
+    public final int matsimGlobalThreads;
+
+    /**
+     * Number of threads for parallel event handling of MATSim. By default one per 8 available cores, at most 4.
+     */
+    public final int matsimEventHandlingThreads;
+
+    /**
+     * Keep MATSim results reproducible for a given number of threads: fixed random seed, no qsim thread pool and
+     * event handling synchronized on simulation steps. False by default.
+     */
+    public final boolean matsimDeterministic;
+
     public enum TransportModelIdentifier {
         MITO, MATSIM, NONE;
     }
@@ -53,6 +109,7 @@ public class TransportModelPropertiesModule {
         transportModelYears = Arrays.stream(PropertiesUtil.getIntPropertyArray(bundle, "transport.model.years", new int[]{2024,2037,2050}))
                 .boxed().collect(Collectors.toSet());
         peakHour_s = PropertiesUtil.getDoubleProperty(bundle, "peak.hour", 8*60*60);
+        transportModelLagged = PropertiesUtil.getBooleanProperty(bundle, "transport.model.lagged", false);
 
         PropertiesUtil.newPropertySubmodule("Transport model identifier (MITO, MATSIM, NONE, or empty)");
         transportModelIdentifier = TransportModelIdentifier.valueOf(PropertiesUtil.getStringProperty(bundle, "transport.model", "NONE").toUpperCase());
@@ -64,6 +121,20 @@ public class TransportModelPropertiesModule {
         matsimInitialEventsFile = PropertiesUtil.getStringProperty(bundle, "matsim.initial.events", null);
         matsimScaleFactor = PropertiesUtil.getDoubleProperty(bundle, "matsim.scale.factor", 0.01);
         matsimWorkersShare = PropertiesUtil.getDoubleProperty(bundle, "matsim.workers.share", .66);
+        matsimSkimCacheSize = PropertiesUtil.getIntProperty(bundle, "matsim.skim.cache.size", 4);
+        matsimSkimCacheBudget_MB = PropertiesUtil.getIntProperty(bundle, "matsim.skim.cache.budget", 0);
+        final double[] skimPeriods_s = PropertiesUtil.getDoublePropertyArray(bundle, "matsim.skim.periods",
+                new double[]{3 * 60 * 60, peakHour_s, 12 * 60 * 60, 17 * 60 * 60});
+        matsimSkimPeriods_s = skimPeriods_s.length > 0 ? Arrays.stream(skimPeriods_s).distinct().toArray() : new double[]{peakHour_s};
+        matsimNodeTreeCacheBudget_MB = PropertiesUtil.getIntProperty(bundle, "matsim.node.tree.cache.budget", 512);
+        matsimSkimCacheDirectory = PropertiesUtil.getStringProperty(bundle, "matsim.skim.cache.directory", null);
+
+        PropertiesUtil.newPropertySubmodule("Transport - silo-matsim parallelism");
+        final int cores = Runtime.getRuntime().availableProcessors();
+        matsimQsimThreads = PropertiesUtil.getIntProperty(bundle, "matsim.qsim.threads", Math.min(cores, 8));
+        matsimGlobalThreads = PropertiesUtil.getIntProperty(bundle, "matsim.global.threads", cores);
+        matsimEventHandlingThreads = PropertiesUtil.getIntProperty(bundle, "matsim.event.handling.threads", Math.max(1, Math.min(4, cores / 8)));
+        matsimDeterministic = PropertiesUtil.getBooleanProperty(bundle, "matsim.deterministic", false);
     }
 
 }
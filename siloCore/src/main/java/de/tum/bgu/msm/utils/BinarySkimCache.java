@@ -0,0 +1,157 @@
+package de.tum.bgu.msm.utils;
+
+import cern.colt.matrix.tdouble.DoubleFactory2D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Stores skim matrices on disk under a fingerprint of the inputs they were calculated from, so later runs with the same
+ * inputs load them instead of calculating them again. A matrix is written as a small header followed by its values as
+ * floats in row-major order and read back through a memory-mapped file. Matrices keep their dimensions, i.e. the zone
+ * ids used as indices.
+ */
+public final class BinarySkimCache {
+
+    private final static Logger logger = Logger.getLogger(BinarySkimCache.class);
+
+    private static final int MAGIC = 0x534b494d;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private final Path directory;
+
+    public BinarySkimCache(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * SHA-256 of the given parts. Files are represented by their content, all other parts by their string value.
+     */
+    public static String fingerprint(Object... parts) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[1 << 16];
+        for (Object part : parts) {
+            if (part instanceof File) {
+                try (InputStream in = new FileInputStream((File) part)) {
+                    int read;
+                    while ((read = in.read(buffer)) > 0) {
+                        digest.update(buffer, 0, read);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not fingerprint file " + part, e);
+                }
+            } else {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return the stored matrix or null if there is none for this fingerprint
+     */
+    public DoubleMatrix2D load(String fingerprint) {
+        Path file = fileOf(fingerprint);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                logger.warn("Ignoring skim cache file " + file + " of unknown format.");
+                return null;
+            }
+            int rows = buffer.getInt();
+            int columns = buffer.getInt();
+            if (channel.size() != HEADER_BYTES + 4L * rows * columns) {
+                logger.warn("Ignoring incomplete skim cache file " + file);
+                return null;
+            }
+            FloatBuffer values = buffer.asFloatBuffer();
+            DoubleMatrix2D matrix = DoubleFactory2D.dense.make(rows, columns);
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    matrix.setQuick(i, j, values.get());
+                }
+            }
+            logger.info("Loaded skim " + fingerprint + " from cache.");
+            return matrix;
+        } catch (IOException e) {
+            logger.warn("Could not read skim cache file " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rounds the values of the matrix to floats in place, so the matrix equals the one loaded from the cache later,
+     * even if it cannot be written. Writes to a temporary file first, so a concurrent or aborted run never leaves a
+     * partial file behind.
+     */
+    public void store(String fingerprint, DoubleMatrix2D matrix) {
+        for (int i = 0; i < matrix.rows(); i++) {
+            for (int j = 0; j < matrix.columns(); j++) {
+                matrix.setQuick(i, j, (float) matrix.getQuick(i, j));
+            }
+        }
+        Path file = fileOf(fingerprint);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, fingerprint, ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+                data.writeInt(Integer.reverseBytes(MAGIC));
+                data.writeInt(Integer.reverseBytes(VERSION));
+                data.writeInt(Integer.reverseBytes(matrix.rows()));
+                data.writeInt(Integer.reverseBytes(matrix.columns()));
+                for (int i = 0; i < matrix.rows(); i++) {
+                    for (int j = 0; j < matrix.columns(); j++) {
+                        data.writeInt(Integer.reverseBytes(Float.floatToIntBits((float) matrix.getQuick(i, j))));
+                    }
+                }
+                data.flush();
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Stored skim " + fingerprint + " in cache.");
+        } catch (IOException e) {
+            logger.warn("Could not write skim cache file " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Path fileOf(String fingerprint) {
+        return directory.resolve(fingerprint + ".skim");
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.tum.bgu.msm.utils;
+
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Holds the source of a calculator script once and lends calculator instances (and thereby script engines) to
+ * the threads evaluating it. Script engines are not thread safe, this allows loops that evaluate calculators to run
+ * in parallel. A calculator is returned to the pool after every evaluation, so the number of instances is bounded by
+ * the largest number of threads evaluating at the same time, and instances are reused by later parallel runs even
+ * if these run on new threads. As long as the scripts are free of side effects, every instance produces identical
+ * results.
+ * @param <C> type of the calculator, usually a subclass of JavaScriptCalculator
+ */
+public final class CalculatorPool<C> {
+
+    private final String script;
+    private final Function<Reader, C> factory;
+    private final Queue<C> idleCalculators = new ConcurrentLinkedQueue<>();
+
+    public CalculatorPool(Reader reader, Function<Reader, C> factory) {
+        try {
+            this.script = CharStreams.toString(reader);
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read calculator script.", e);
+        }
+        this.factory = factory;
+    }
+
+    /**
+     * Evaluates the calculation with a calculator that no other thread uses meanwhile.
+     */
+    public double calculate(ToDoubleFunction<C> calculation) {
+        C calculator = idleCalculators.poll();
+        if (calculator == null) {
+            calculator = factory.apply(new StringReader(script));
+        }
+        try {
+            return calculation.applyAsDouble(calculator);
+        } finally {
+            idleCalculators.offer(calculator);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package de.tum.bgu.msm.utils;
+
+import java.util.*;
+
+/**
+ * Map of objects by their int id, backed by a growable array that is indexed by the id itself.
+ * Meant for the sequentially allocated ids of persons, households, dwellings and jobs, for which
+ * lookups neither box the key nor chase hash buckets. Removed entries leave an empty slot (null) behind.
+ * Iteration follows ascending ids. Null values are not permitted.
+ * <p>
+ * Not thread safe, with one exception: lookups by id may run while another thread modifies the map under an
+ * external lock. The backing array is published through a volatile field and read once per lookup, so a lookup
+ * never sees a partially grown array. Entries that existed before the concurrent phase started are always found,
+ * entries added or removed meanwhile may or may not be visible yet. Iteration must not overlap with modifications.
+ */
+public final class DenseIdMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private volatile Object[] values;
+    private int size = 0;
+
+    public DenseIdMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DenseIdMap(int initialCapacity) {
+        values = new Object[Math.max(initialCapacity, 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int id) {
+        final Object[] snapshot = values;
+        if (id < 0 || id >= snapshot.length) {
+            return null;
+        }
+        return (V) snapshot[id];
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    public boolean containsKey(int id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    public V put(int id, V value) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative ids are not supported: " + id);
+        }
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported. Use remove() instead.");
+        }
+        if (id >= values.length) {
+            values = Arrays.copyOf(values, Math.max(id + 1, values.length + (values.length >> 1)));
+        }
+        V previous = get(id);
+        values[id] = value;
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    public V remove(int id) {
+        V previous = get(id);
+        if (previous != null) {
+            values[id] = null;
+            size--;
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    V element(int id) {
+                        return (V) values[id];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new SlotIterator<Entry<Integer, V>>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    Entry<Integer, V> element(int id) {
+                        return new SimpleImmutableEntry<>(id, (V) values[id]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Iterates over all occupied slots in ascending order of ids.
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        private int next = -1;
+        private int current = -1;
+
+        SlotIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next++;
+            while (next < values.length && values[next] == null) {
+                next++;
+            }
+        }
+
+        abstract E element(int id);
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            advance();
+            return element(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0 || values[current] == null) {
+                throw new IllegalStateException();
+            }
+            values[current] = null;
+            size--;
+        }
+    }
+}
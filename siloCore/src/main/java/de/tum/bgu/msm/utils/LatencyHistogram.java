@@ -0,0 +1,100 @@
+package de.tum.bgu.msm.utils;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets in the style of HdrHistogram.
+ * Values below 128 are counted exactly, larger values with a relative precision of about 1.5%.
+ * Recording is a few arithmetic operations and does not allocate. Not thread safe.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[indexOf(value)]++;
+        count++;
+        total = saturatedAdd(total, value);
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total = saturatedAdd(total, other.total);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of all latencies in nanoseconds, or Long.MAX_VALUE if the sum does not fit into a long
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Percentiles follow the nearest rank method and are not interpolated between samples. The mid value of the
+     * bucket of the sample at that rank is returned, but never more than the maximum.
+     * @param quantile between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return the latency in nanoseconds at the given quantile, 0 if nothing was recorded
+     */
+    public long getPercentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(quantile * count));
+        if (target >= count) {
+            return max;
+        }
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts[i];
+            if (cumulated >= target) {
+                return Math.min(valueOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static long saturatedAdd(long total, long value) {
+        return value > Long.MAX_VALUE - total ? Long.MAX_VALUE : total + value;
+    }
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    /**
+     * @return the mid value of the given bucket
+     */
+    static long valueOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = ((long) (index % SUB_BUCKETS + SUB_BUCKETS)) << shift;
+        return lowest + ((1L << shift) >> 1);
+    }
+}
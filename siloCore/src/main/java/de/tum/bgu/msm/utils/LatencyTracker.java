@@ -0,0 +1,104 @@
+package de.tum.bgu.msm.utils;
+
+import de.tum.bgu.msm.properties.Properties;
+
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects nanosecond latency histograms and success counts per event type and model phase.
+ * Results are written once per year next to the time tracker file. If disabled, recording returns immediately.
+ * Not thread safe, parallel workers record into their own tracker that is merged afterwards.
+ */
+public final class LatencyTracker {
+
+    private static final String LATENCY_FILE = "eventLatencies.csv";
+
+    private final boolean enabled;
+    private final Map<String, Record> records = new LinkedHashMap<>();
+
+    public LatencyTracker(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(String identifier, long nanos, boolean success) {
+        if (!enabled) {
+            return;
+        }
+        Record record = records.get(identifier);
+        if (record == null) {
+            record = new Record();
+            records.put(identifier, record);
+        }
+        record.histogram.record(nanos);
+        if (success) {
+            record.successes++;
+        }
+    }
+
+    public void merge(LatencyTracker other) {
+        for (Map.Entry<String, Record> entry : other.records.entrySet()) {
+            Record record = records.get(entry.getKey());
+            if (record == null) {
+                record = new Record();
+                records.put(entry.getKey(), record);
+            }
+            record.histogram.merge(entry.getValue().histogram);
+            record.successes += entry.getValue().successes;
+        }
+    }
+
+    /**
+     * @return the latencies recorded for the identifier this year, null if there are none
+     */
+    LatencyHistogram getHistogram(String identifier) {
+        Record record = records.get(identifier);
+        return record == null ? null : record.histogram;
+    }
+
+    /**
+     * @return the number of successful events recorded for the identifier this year
+     */
+    long getSuccesses(String identifier) {
+        Record record = records.get(identifier);
+        return record == null ? 0 : record.successes;
+    }
+
+    /**
+     * Appends the latencies of this year to the latency file and clears all records.
+     * Latencies are given in microseconds, totals in milliseconds.
+     */
+    public void writeYear(int year) {
+        if (!enabled) {
+            return;
+        }
+        final boolean append = year != Properties.get().main.startYear;
+        PrintWriter pw = SiloUtil.openFileForSequentialWriting(Properties.get().main.baseDirectory + "scenOutput/" +
+                Properties.get().main.scenarioName + "/" + LATENCY_FILE, append);
+        if (!append) {
+            pw.println("year,identifier,count,successRate,p50_us,p99_us,max_us,total_ms");
+        }
+        for (Map.Entry<String, Record> entry : records.entrySet()) {
+            LatencyHistogram histogram = entry.getValue().histogram;
+            long count = histogram.getCount();
+            pw.println(year + "," + entry.getKey() + "," + count + ","
+                    + (count > 0 ? (double) entry.getValue().successes / count : 0) + ","
+                    + histogram.getPercentile(0.5) / 1000. + ","
+                    + histogram.getPercentile(0.99) / 1000. + ","
+                    + histogram.getMax() / 1000. + ","
+                    + histogram.getTotal() / 1000000.);
+        }
+        pw.close();
+        records.clear();
+    }
+
+    private static final class Record {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long successes = 0;
+    }
+}
@@ -0,0 +1,127 @@
+package de.tum.bgu.msm.utils;
+
+import org.apache.log4j.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache that is bounded by a number of entries and by an estimated size in bytes.
+ * If either limit is exceeded, the least recently used entries are evicted. The most recent entry is
+ * always kept, even if it alone exceeds the byte budget. Hits, misses and evictions are counted to judge
+ * whether the limits fit the model. A limit of 0 or less means no limit. Thread safe.
+ */
+public final class LruCache<K, V> {
+
+    private final static Logger logger = Logger.getLogger(LruCache.class);
+
+    private final String name;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param weigher estimated size of a value in bytes
+     */
+    public LruCache(String name, int maxEntries, long maxBytes, ToLongFunction<V> weigher) {
+        this.name = name;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+    }
+
+    /**
+     * @return the cached value or null, which is counted as a miss
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Checks for an entry without counting a hit or miss and without changing the order of use.
+     */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void put(K key, V value) {
+        V previous = entries.put(key, value);
+        if (previous != null) {
+            bytes -= weigher.applyAsLong(previous);
+        }
+        bytes += weigher.applyAsLong(value);
+        evict();
+    }
+
+    /**
+     * Returns the cached value or computes and caches it. The computation runs while holding the lock
+     * of this cache, so a value is never computed twice at the same time.
+     */
+    public synchronized V getOrCompute(K key, Function<K, V> function) {
+        V value = get(key);
+        if (value == null) {
+            value = function.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized void logStatistics() {
+        logger.info("  Cache " + name + ": " + entries.size() + " entries using " + (bytes >> 20) + " MB. Hits: " + hits
+                + ", misses: " + misses + ", evictions: " + evictions);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (entries.size() > 1 && exceedsLimits()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            bytes -= weigher.applyAsLong(eldest.getValue());
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private boolean exceedsLimits() {
+        return (maxEntries > 0 && entries.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+    }
+}
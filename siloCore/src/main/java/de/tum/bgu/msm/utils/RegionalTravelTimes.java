@@ -0,0 +1,79 @@
+package de.tum.bgu.msm.utils;
+
+import de.tum.bgu.msm.data.Region;
+import de.tum.bgu.msm.data.Zone;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Travel times from every zone to every region for one mode and time of day, stored as one float per zone and region
+ * in a dense array by zone and region id. Calculated once up front, so queries in inner loops of the models are simple
+ * lookups instead of scanning all zones of a region. Thread safe after construction.
+ * <p>
+ * Zones are filled in parallel only if requested, which requires the given travel time function to be thread safe.
+ */
+public final class RegionalTravelTimes {
+
+    private final int numberOfRegionIds;
+    // by zone id * numberOfRegionIds + region id, NaN for unknown combinations
+    private final float[] travelTimes;
+
+    /**
+     * @param travelTime travel time from a zone to a region, called once for every combination
+     * @param parallel   fill zones in parallel, travelTime is then called from several threads at once and has to be
+     *                   thread safe
+     */
+    public RegionalTravelTimes(Collection<Zone> zones, Collection<Region> regions,
+                               ToDoubleBiFunction<Zone, Region> travelTime, boolean parallel) {
+        final int highestZoneId = zones.stream().mapToInt(Zone::getZoneId).max().orElse(0);
+        this.numberOfRegionIds = regions.stream().mapToInt(Region::getId).max().orElse(0) + 1;
+        this.travelTimes = new float[(highestZoneId + 1) * numberOfRegionIds];
+        Arrays.fill(travelTimes, Float.NaN);
+        (parallel ? zones.parallelStream() : zones.stream()).forEach(zone -> {
+            for (Region region : regions) {
+                travelTimes[zone.getZoneId() * numberOfRegionIds + region.getId()] = (float) travelTime.applyAsDouble(zone, region);
+            }
+        });
+    }
+
+    /**
+     * Minimum travel times over all zones of a region, calculated from travel times between zones in parallel.
+     *
+     * @param zoneToZoneTravelTime has to be thread safe, e.g. reading from skim matrices that are not modified meanwhile
+     */
+    public static RegionalTravelTimes minimumOverZones(Collection<Zone> zones, Collection<Region> regions,
+                                                       ToDoubleBiFunction<Zone, Zone> zoneToZoneTravelTime) {
+        return new RegionalTravelTimes(zones, regions, (zone, region) -> {
+            double min = Double.MAX_VALUE;
+            for (Zone zoneInRegion : region.getZones()) {
+                min = Math.min(min, zoneToZoneTravelTime.applyAsDouble(zone, zoneInRegion));
+            }
+            return min;
+        }, true);
+    }
+
+    /**
+     * Travel times to regions as answered by the given travel times. Implementations of {@link TravelTimes} are not
+     * required to be thread safe, so they are queried sequentially from the calling thread. Implementations that
+     * calculate travel times to regions themselves, like MatsimTravelTimes, may do so in parallel internally.
+     */
+    public static RegionalTravelTimes of(TravelTimes travelTimes, Collection<Zone> zones, Collection<Region> regions,
+                                         double timeOfDay_s, String mode) {
+        return new RegionalTravelTimes(zones, regions,
+                (zone, region) -> travelTimes.getTravelTimeToRegion(zone, region, timeOfDay_s, mode), false);
+    }
+
+    /**
+     * @return the travel time or NaN if the zone or region is unknown
+     */
+    public double getTravelTime(int zone, int region) {
+        if (zone < 0 || region < 0 || region >= numberOfRegionIds) {
+            return Double.NaN;
+        }
+        int index = zone * numberOfRegionIds + region;
+        return index < travelTimes.length ? travelTimes[index] : Double.NaN;
+    }
+}
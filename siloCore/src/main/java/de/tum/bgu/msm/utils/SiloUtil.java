@@ -34,6 +34,7 @@ public class SiloUtil {
 
     private static final String TIME_TRACKER_FILE = "timeTracker.csv";
     private static Random rand;
+    private static final ThreadLocal<Random> localRand = new ThreadLocal<>();
     public static int trackHh;
     public static int trackPp;
     public static int trackDd;
@@ -146,16 +147,29 @@ public class SiloUtil {
     }
 
 
+    /**
+     * Binds a random object to the current thread. As long as it is set, all random draws of this
+     * thread use it instead of the global random object, which keeps parallel runs reproducible.
+     */
+    public static void setThreadLocalRandom(Random random) {
+        localRand.set(random);
+    }
+
+    public static void clearThreadLocalRandom() {
+        localRand.remove();
+    }
+
     public static Random getRandomObject() {
-        return rand;
+        Random local = localRand.get();
+        return local != null ? local : rand;
     }
 
     public static float getRandomNumberAsFloat() {
-        return rand.nextFloat();
+        return getRandomObject().nextFloat();
     }
 
     public static double getRandomNumberAsDouble() {
-        return rand.nextDouble();
+        return getRandomObject().nextDouble();
     }
 
 
@@ -321,7 +335,7 @@ public class SiloUtil {
     @Deprecated
     public static int select (double[] probabilities) {
         // select item based on probabilities (for zero-based double array)
-       return select(probabilities, getSum(probabilities), rand);
+       return select(probabilities, getSum(probabilities), getRandomObject());
     }
 
     @Deprecated
@@ -332,7 +346,7 @@ public class SiloUtil {
     @Deprecated
     public static int select (double[] probabilities, double sumProb) {
         // select item based on probabilities (for zero-based double array)
-        return select(probabilities, getSum(probabilities), rand);
+        return select(probabilities, getSum(probabilities), getRandomObject());
     }
 
     @Deprecated
@@ -402,7 +416,7 @@ public class SiloUtil {
 
     public static <T> T select(Map<T, ? extends Number> mappedProbabilities, double sum) {
         // select item based on probabilities (for mapped double probabilities)
-        double selectedWeight = rand.nextDouble() * sum;
+        double selectedWeight = getRandomObject().nextDouble() * sum;
         double select = 0;
         for (Map.Entry<T, ? extends Number> entry : mappedProbabilities.entrySet()) {
             select += entry.getValue().doubleValue();
@@ -21,6 +21,14 @@ public class TimeTracker {
         currentYearRecords.add(identifier, (int) timer.millis());
     }
 
+    /**
+     * Adds an externally measured duration, e.g. the sum of many short events that
+     * would be truncated to 0 if recorded one by one in milliseconds.
+     */
+    public void recordNanos(String identifier, long nanos) {
+        currentYearRecords.add(identifier, (int) (nanos / 1000000));
+    }
+
     public void recordAndReset(String identifier) {
         record(identifier);
         reset();
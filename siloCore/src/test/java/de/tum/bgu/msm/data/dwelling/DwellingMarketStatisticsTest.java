@@ -0,0 +1,45 @@
+package de.tum.bgu.msm.data.dwelling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DwellingMarketStatisticsTest {
+
+    @Test
+    public void testAggregatesFollowChanges() {
+        // zones 1 and 2 are in region 1, zone 3 in region 2
+        DwellingMarketStatistics statistics = new DwellingMarketStatistics(new int[]{0, 1, 1, 2}, 2);
+        Assert.assertTrue(statistics.add(1, 0, 1, 500, 2, true));
+        Assert.assertTrue(statistics.add(2, 0, 2, 700, 3, false));
+        Assert.assertTrue(statistics.add(3, 1, 3, 1000, 4, true));
+        Assert.assertFalse(statistics.add(3, 1, 3, 1000, 4, true));
+
+        Assert.assertEquals(2, statistics.getNumberOfDwellingsInRegion(0, 1));
+        Assert.assertEquals(1, statistics.getNumberOfOccupiedDwellingsInRegion(0, 1));
+        Assert.assertEquals(1200, statistics.getPriceSumInRegion(0, 1));
+        Assert.assertEquals(5, statistics.getSizeSumInRegion(0, 1));
+        Assert.assertEquals(1, statistics.getNumberOfDwellingsInZone(0, 2));
+        Assert.assertEquals(700, statistics.getPriceSumInZone(0, 2));
+
+        Assert.assertTrue(statistics.setOccupied(2, true));
+        Assert.assertTrue(statistics.setOccupied(2, true));
+        Assert.assertEquals(2, statistics.getNumberOfOccupiedDwellingsInRegion(0, 1));
+        Assert.assertEquals(1, statistics.getNumberOfOccupiedDwellingsInZone(0, 2));
+
+        Assert.assertTrue(statistics.setPrice(1, 600));
+        Assert.assertEquals(1300, statistics.getPriceSumInRegion(0, 1));
+        Assert.assertEquals(600, statistics.getPriceSumInZone(0, 1));
+
+        Assert.assertTrue(statistics.remove(1));
+        Assert.assertFalse(statistics.remove(1));
+        Assert.assertFalse(statistics.setPrice(1, 100));
+        Assert.assertEquals(1, statistics.getNumberOfDwellingsInRegion(0, 1));
+        Assert.assertEquals(1, statistics.getNumberOfOccupiedDwellingsInRegion(0, 1));
+        Assert.assertEquals(700, statistics.getPriceSumInRegion(0, 1));
+        Assert.assertEquals(3, statistics.getSizeSumInRegion(0, 1));
+        Assert.assertEquals(0, statistics.getNumberOfDwellingsInZone(0, 1));
+
+        Assert.assertEquals(1, statistics.getNumberOfDwellingsInRegion(1, 2));
+        Assert.assertEquals(4, statistics.getSizeSumInZone(1, 3));
+    }
+}
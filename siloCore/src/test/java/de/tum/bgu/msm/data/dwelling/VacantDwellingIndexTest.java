@@ -0,0 +1,132 @@
+package de.tum.bgu.msm.data.dwelling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class VacantDwellingIndexTest {
+
+    @Test
+    public void testAddAndRemove() {
+        VacantDwellingIndex index = new VacantDwellingIndex(2, 2);
+        for (int id = 0; id < 100; id++) {
+            Assert.assertTrue(index.add(id, id % 2 + 1, id % 3 == 0 ? 1 : 0));
+        }
+        Assert.assertFalse(index.add(5, 2, 0));
+        Assert.assertEquals(100, index.size());
+        Assert.assertEquals(0, index.getNumberOfVacantDwellings(0));
+        Assert.assertEquals(50, index.getNumberOfVacantDwellings(1));
+        Assert.assertEquals(17, index.getNumberOfVacantDwellings(1, 1));
+
+        Assert.assertTrue(index.remove(0));
+        Assert.assertTrue(index.remove(98));
+        Assert.assertFalse(index.remove(0));
+        Assert.assertFalse(index.remove(1000));
+        Assert.assertFalse(index.contains(0));
+        Assert.assertTrue(index.contains(2));
+        Assert.assertEquals(48, index.getNumberOfVacantDwellings(1));
+        Assert.assertEquals(16, index.getNumberOfVacantDwellings(1, 1));
+
+        int[] vacant = index.getVacantDwellings(1);
+        Arrays.sort(vacant);
+        for (int i = 0; i < vacant.length; i++) {
+            Assert.assertEquals(2 * (i + 1), vacant[i]);
+        }
+
+        Assert.assertTrue(index.add(0, 2, 1));
+        Assert.assertEquals(51, index.getNumberOfVacantDwellings(2));
+    }
+
+    @Test
+    public void testSample() {
+        VacantDwellingIndex index = new VacantDwellingIndex(1, 1);
+        for (int id = 1; id <= 50; id++) {
+            index.add(id, 1, 0);
+        }
+        Random random = new Random(42);
+        int[] sample = index.sample(1, 20, random);
+        Assert.assertEquals(20, sample.length);
+        Set<Integer> distinct = new HashSet<>();
+        for (int id : sample) {
+            Assert.assertTrue(index.contains(id));
+            distinct.add(id);
+        }
+        Assert.assertEquals(20, distinct.size());
+        Assert.assertEquals(50, index.sample(1, 0, 100, random).length);
+
+        // positions must survive the reordering by sampling
+        for (int id : sample) {
+            Assert.assertTrue(index.remove(id));
+        }
+        Assert.assertEquals(30, index.getNumberOfVacantDwellings(1));
+        for (int id : index.getVacantDwellings(1)) {
+            Assert.assertFalse(distinct.contains(id));
+        }
+        Assert.assertEquals(0, index.sample(0, 5, random).length);
+    }
+
+    @Test
+    public void testSampleStratifiedByType() {
+        VacantDwellingIndex index = new VacantDwellingIndex(1, 3);
+        // 30 dwellings of type 0, 15 of type 1, 5 of type 2
+        for (int id = 1; id <= 50; id++) {
+            index.add(id, 1, id <= 30 ? 0 : id <= 45 ? 1 : 2);
+        }
+        Random random = new Random(42);
+        int[] sample = index.sampleStratifiedByType(1, 10, random);
+        Assert.assertEquals(10, sample.length);
+        int[] countByType = new int[3];
+        Set<Integer> distinct = new HashSet<>();
+        for (int id : sample) {
+            countByType[id <= 30 ? 0 : id <= 45 ? 1 : 2]++;
+            distinct.add(id);
+        }
+        Assert.assertEquals(10, distinct.size());
+        Assert.assertArrayEquals(new int[]{6, 3, 1}, countByType);
+
+        // remainders: 4.2, 2.1 and 0.7 dwellings, the largest remainder gets the last dwelling
+        sample = index.sampleStratifiedByType(1, 7, random);
+        Arrays.fill(countByType, 0);
+        for (int id : sample) {
+            countByType[id <= 30 ? 0 : id <= 45 ? 1 : 2]++;
+        }
+        Assert.assertArrayEquals(new int[]{4, 2, 1}, countByType);
+
+        Assert.assertEquals(50, index.sampleStratifiedByType(1, 100, random).length);
+        Assert.assertEquals(0, index.sampleStratifiedByType(0, 5, random).length);
+    }
+
+    @Test
+    public void testSampleWithoutReordering() {
+        VacantDwellingIndex index = new VacantDwellingIndex(1, 2);
+        for (int id = 1; id <= 50; id++) {
+            index.add(id, 1, id <= 40 ? 0 : 1);
+        }
+        int[] before = index.getVacantDwellings(1);
+        Random random = new Random(42);
+        int[] sample = index.sampleWithoutReordering(1, 20, random);
+        Assert.assertEquals(20, sample.length);
+        Set<Integer> distinct = new HashSet<>();
+        for (int id : sample) {
+            Assert.assertTrue(index.contains(id));
+            distinct.add(id);
+        }
+        Assert.assertEquals(20, distinct.size());
+
+        sample = index.sampleStratifiedByTypeWithoutReordering(1, 10, random);
+        int[] countByType = new int[2];
+        for (int id : sample) {
+            countByType[id <= 40 ? 0 : 1]++;
+        }
+        Assert.assertArrayEquals(new int[]{8, 2}, countByType);
+        Assert.assertEquals(50, index.sampleWithoutReordering(1, 100, random).length);
+        Assert.assertEquals(0, index.sampleWithoutReordering(0, 5, random).length);
+
+        // the order of the bucket is left untouched
+        Assert.assertArrayEquals(before, index.getVacantDwellings(1));
+    }
+}
@@ -0,0 +1,73 @@
+package de.tum.bgu.msm.data.job;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class JobMarketIndexTest {
+
+    // zones 1 and 2 are in region 1, zone 3 in region 2
+    private final int[] regionOfZone = {0, 1, 1, 2};
+
+    @Test
+    public void testVacantJobsAreKeptApart() {
+        JobMarketIndex index = new JobMarketIndex(regionOfZone, 2);
+        Assert.assertTrue(index.add(1, 1, 0, true));
+        Assert.assertTrue(index.add(2, 1, 0, false));
+        Assert.assertTrue(index.add(3, 1, 0, true));
+        Assert.assertTrue(index.add(4, 2, 1, true));
+        Assert.assertTrue(index.add(5, 3, 0, false));
+        Assert.assertFalse(index.add(1, 1, 0, true));
+
+        Assert.assertEquals(3, index.getNumberOfJobs(1, 0));
+        Assert.assertEquals(2, index.getNumberOfVacantJobs(1, 0));
+        Assert.assertEquals(3, index.getNumberOfVacantJobsInRegion(1));
+        Assert.assertEquals(0, index.getNumberOfVacantJobsInRegion(2));
+        Assert.assertEquals(0, index.getNumberOfJobs(3, 1));
+        Assert.assertEquals(0, index.getVacantJobs(3, 1).length);
+
+        int[] vacant = index.getVacantJobs(1, 0);
+        Arrays.sort(vacant);
+        Assert.assertArrayEquals(new int[]{1, 3}, vacant);
+        Assert.assertArrayEquals(new int[]{2}, index.getOccupiedJobs(1, 0));
+
+        Assert.assertTrue(index.setOccupied(1));
+        Assert.assertFalse(index.setOccupied(1));
+        Assert.assertTrue(index.setVacant(2));
+        Assert.assertFalse(index.setVacant(2));
+        Assert.assertTrue(index.setVacant(5));
+        Assert.assertEquals(2, index.getNumberOfVacantJobs(1, 0));
+        Assert.assertArrayEquals(new int[]{1}, index.getOccupiedJobs(1, 0));
+        Assert.assertEquals(1, index.getNumberOfVacantJobsInRegion(2));
+
+        Assert.assertTrue(index.remove(3));
+        Assert.assertFalse(index.remove(3));
+        Assert.assertFalse(index.contains(3));
+        Assert.assertEquals(2, index.getNumberOfJobs(1, 0));
+        Assert.assertArrayEquals(new int[]{2}, index.getVacantJobs(1, 0));
+        Assert.assertEquals(2, index.getNumberOfVacantJobsInRegion(1));
+    }
+
+    @Test
+    public void testSampleVacantJob() {
+        JobMarketIndex index = new JobMarketIndex(regionOfZone, 1);
+        Random random = new Random(42);
+        Assert.assertEquals(-1, index.sampleVacantJob(1, random));
+        for (int id = 0; id < 100; id++) {
+            index.add(id, id % 2 + 1, 0, id % 4 == 0);
+        }
+        for (int i = 0; i < 100; i++) {
+            int job = index.sampleVacantJob(1, random);
+            Assert.assertTrue(index.isVacant(job));
+            Assert.assertEquals(0, job % 4);
+        }
+        while (index.getNumberOfVacantJobsInRegion(1) > 0) {
+            Assert.assertTrue(index.setOccupied(index.sampleVacantJob(1, random)));
+        }
+        Assert.assertEquals(0, index.getNumberOfVacantJobs(1, 0));
+        Assert.assertEquals(50, index.getNumberOfJobs(1, 0));
+        Assert.assertEquals(-1, index.sampleVacantJob(1, random));
+    }
+}
@@ -0,0 +1,137 @@
+package de.tum.bgu.msm.events;
+
+import de.tum.bgu.msm.properties.modules.EventRulesProperties;
+import de.tum.bgu.msm.utils.SiloUtil;
+import de.tum.bgu.msm.utils.TimeTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.PropertyResourceBundle;
+
+public class MicroSimulationTest {
+
+    private static final int HOUSEHOLDS = 50;
+    private static final int PERSONS = 600;
+    private static final int PARTITIONS = 8;
+
+    private static final class PersonEvent implements MicroEvent {
+        private final int personId;
+
+        private PersonEvent(int personId) {
+            this.personId = personId;
+        }
+    }
+
+    private static final class HouseholdEvent implements MicroEvent {
+        private final int householdId;
+
+        private HouseholdEvent(int householdId) {
+            this.householdId = householdId;
+        }
+    }
+
+    /**
+     * Changes the state of the household of a person depending on the order of events and on random draws.
+     * Persons without household (every 10th) are processed serially.
+     */
+    private static final class PersonModel implements PartitionedMicroEventModel<PersonEvent> {
+
+        private final long[] population;
+
+        private PersonModel(long[] population) {
+            this.population = population;
+        }
+
+        @Override
+        public Collection<PersonEvent> prepareYear(int year) {
+            List<PersonEvent> events = new ArrayList<>();
+            for (int i = 0; i < PERSONS; i++) {
+                events.add(new PersonEvent(i));
+            }
+            return events;
+        }
+
+        @Override
+        public boolean handleEvent(PersonEvent event) {
+            int key = getPartitionKey(event);
+            int household = key < 0 ? HOUSEHOLDS : key;
+            double draw = SiloUtil.getRandomNumberAsDouble();
+            population[household] = population[household] * 31 + (long) (draw * 1000);
+            return draw < 0.5;
+        }
+
+        @Override
+        public void finishYear(int year) {
+        }
+
+        @Override
+        public int getPartitionKey(PersonEvent event) {
+            return event.personId % 10 == 0 ? -1 : event.personId % HOUSEHOLDS;
+        }
+    }
+
+    /**
+     * Modifies several households per event, so it has to be processed serially.
+     */
+    private static final class HouseholdModel implements MicroEventModel<HouseholdEvent> {
+
+        private final long[] population;
+
+        private HouseholdModel(long[] population) {
+            this.population = population;
+        }
+
+        @Override
+        public Collection<HouseholdEvent> prepareYear(int year) {
+            List<HouseholdEvent> events = new ArrayList<>();
+            for (int i = 0; i < HOUSEHOLDS; i++) {
+                events.add(new HouseholdEvent(i));
+            }
+            return events;
+        }
+
+        @Override
+        public boolean handleEvent(HouseholdEvent event) {
+            int other = (int) (SiloUtil.getRandomNumberAsDouble() * HOUSEHOLDS);
+            population[other] += population[event.householdId] % 1000;
+            return true;
+        }
+
+        @Override
+        public void finishYear(int year) {
+        }
+    }
+
+    @Test
+    public void testSameResultForAnyNumberOfThreads() throws IOException {
+        long[] oneThread = simulate(42, 1);
+        Assert.assertArrayEquals(oneThread, simulate(42, 3));
+        Assert.assertArrayEquals(oneThread, simulate(42, PARTITIONS));
+        // one thread per batch, as used by the model runs
+        Assert.assertArrayEquals(oneThread, simulate(42, 0));
+
+        long[] otherSeed = simulate(43, 1);
+        boolean differs = false;
+        for (int i = 0; i < oneThread.length; i++) {
+            differs |= oneThread[i] != otherSeed[i];
+        }
+        Assert.assertTrue(differs);
+    }
+
+    private static long[] simulate(int seed, int threads) throws IOException {
+        EventRulesProperties eventRules = new EventRulesProperties(new PropertyResourceBundle(new StringReader(
+                "event.parallel.execution = true\nevent.parallel.partitions = " + PARTITIONS + "\n")));
+        SiloUtil.initializeRandomNumber(seed);
+        long[] population = new long[HOUSEHOLDS + 1];
+        MicroSimulation simulation = new MicroSimulation(new TimeTracker(), false, eventRules, threads);
+        simulation.registerModel(PersonEvent.class, new PersonModel(population));
+        simulation.registerModel(HouseholdEvent.class, new HouseholdModel(population));
+        simulation.simulate(2011);
+        return population;
+    }
+}
@@ -0,0 +1,66 @@
+package de.tum.bgu.msm.events;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PackedEventQueueTest {
+
+    @Test
+    public void testEventsAreDecodedFromTheirSource() {
+        List<EventSlots> sources = new ArrayList<>();
+        sources.add(new TestSlots(0, 100));
+        sources.add(new TestSlots(1, 0));
+        sources.add(new TestSlots(2, 50));
+
+        PackedEventQueue queue = new PackedEventQueue(sources);
+        Assert.assertEquals(150, queue.size());
+        queue.shuffle(new Random(42));
+
+        Set<String> seen = new HashSet<>();
+        while (queue.hasNext()) {
+            TestEvent event = (TestEvent) queue.next();
+            Assert.assertEquals(0, event.id % 3);
+            Assert.assertTrue(seen.add(event.source + "_" + event.id));
+        }
+        Assert.assertEquals(34 + 17, seen.size());
+    }
+
+    private static class TestEvent implements MicroEvent {
+        private final int source;
+        private final int id;
+
+        private TestEvent(int source, int id) {
+            this.source = source;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Only every third slot holds an event
+     */
+    private static class TestSlots implements EventSlots {
+        private final int source;
+        private final int size;
+
+        private TestSlots(int source, int size) {
+            this.source = source;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public MicroEvent createEvent(int slot) {
+            return slot % 3 == 0 ? new TestEvent(source, slot) : null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.tum.bgu.msm.events;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class ShuffledEventIteratorTest {
+
+    @Test
+    public void testPermutationIsBijective() {
+        for (int size : new int[]{0, 1, 2, 7, 64, 1000, 4097}) {
+            RandomPermutation permutation = new RandomPermutation(size, new Random(42));
+            Set<Integer> seen = new HashSet<>();
+            for (int i = 0; i < size; i++) {
+                int index = permutation.get(i);
+                Assert.assertTrue(index >= 0 && index < size);
+                Assert.assertTrue(seen.add(index));
+            }
+            Assert.assertEquals(size, seen.size());
+        }
+    }
+
+    @Test
+    public void testAllEventsAreStreamedOnceAndEmptySlotsSkipped() {
+        List<EventSlots> sources = new ArrayList<>();
+        sources.add(new TestSlots(1000, 0));
+        sources.add(new TestSlots(10, 1000));
+        sources.add(new TestSlots(0, 2000));
+
+        ShuffledEventIterator iterator = new ShuffledEventIterator(sources, new Random(42));
+        Assert.assertEquals(1010, iterator.getRemainingSlots());
+        Set<Integer> seen = new HashSet<>();
+        while (iterator.hasNext()) {
+            TestEvent event = (TestEvent) iterator.next();
+            Assert.assertTrue(seen.add(event.id));
+            Assert.assertEquals(0, event.id % 2);
+        }
+        Assert.assertEquals(505, seen.size());
+    }
+
+    @Test
+    public void testOrderIsReproducible() {
+        List<EventSlots> sources = new ArrayList<>();
+        sources.add(new TestSlots(100, 0));
+        sources.add(new TestSlots(50, 1000));
+
+        ShuffledEventIterator first = new ShuffledEventIterator(sources, new Random(1));
+        ShuffledEventIterator second = new ShuffledEventIterator(sources, new Random(1));
+        while (first.hasNext()) {
+            Assert.assertTrue(second.hasNext());
+            Assert.assertEquals(((TestEvent) first.next()).id, ((TestEvent) second.next()).id);
+        }
+        Assert.assertFalse(second.hasNext());
+    }
+
+    private static class TestEvent implements MicroEvent {
+        private final int id;
+
+        private TestEvent(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * Only even slots hold an event
+     */
+    private static class TestSlots implements EventSlots {
+        private final int size;
+        private final int offset;
+
+        private TestSlots(int size, int offset) {
+            this.size = size;
+            this.offset = offset;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public MicroEvent createEvent(int slot) {
+            return slot % 2 == 0 ? new TestEvent(offset + slot) : null;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package de.tum.bgu.msm.models.javascript;
+
+import de.tum.bgu.msm.data.person.Gender;
+import de.tum.bgu.msm.data.person.PersonType;
+import de.tum.bgu.msm.models.demography.BirthJSCalculator;
+import de.tum.bgu.msm.models.demography.DeathJSCalculator;
+import de.tum.bgu.msm.models.demography.LeaveParentHhJSCalculator;
+import de.tum.bgu.msm.models.demography.LicenseJSCalculator;
+import de.tum.bgu.msm.models.demography.MarryDivorceJSCalculator;
+import de.tum.bgu.msm.util.js.JavaScriptCalculator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+/**
+ * Checks that the demography calculators serve the same probabilities from their lookup tables as their
+ * scripts return, over the whole tabulated domain and just outside of it.
+ */
+public class TabulatedCalculatorsTest {
+
+    private static final int MAX_AGE = 100;
+    private static final int MAX_CHILDREN = 10;
+
+    /**
+     * Evaluates a script function directly, without any table.
+     */
+    private static final class Script extends JavaScriptCalculator<Double> {
+
+        private Script(Reader reader) {
+            super(reader);
+        }
+
+        private double evaluate(String function, Object... arguments) {
+            return calculate(function, arguments);
+        }
+    }
+
+    private Reader read(String name) {
+        return new InputStreamReader(this.getClass().getResourceAsStream(name));
+    }
+
+    @Test
+    public void testDeath() {
+        for (String name : new String[]{"DeathProbabilityCalcMuc", "DeathProbabilityCalcMstm"}) {
+            DeathJSCalculator calculator = new DeathJSCalculator(read(name));
+            Script script = new Script(read(name));
+            // ages above the table are passed to the script
+            for (int age = 0; age <= MAX_AGE + 2; age++) {
+                for (Gender gender : Gender.values()) {
+                    Assert.assertEquals(name + " " + age + " " + gender,
+                            script.evaluate("calculateDeathProbability", age, gender),
+                            calculator.calculateDeathProbability(age, gender), 0.);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBirth() {
+        final float scaler = 0.87f;
+        for (String name : new String[]{"BirthProbabilityCalcMuc", "BirthProbabilityCalcMstm"}) {
+            BirthJSCalculator calculator = new BirthJSCalculator(read(name), scaler);
+            Script script = new Script(read(name));
+            // ages and numbers of children above the table are passed to the script
+            for (int age = 0; age <= MAX_AGE + 1; age++) {
+                for (int children = 0; children <= MAX_CHILDREN + 1; children++) {
+                    Assert.assertEquals(name + " " + age + " " + children,
+                            script.evaluate("calculateBirthProbability", age, children, scaler),
+                            calculator.calculateBirthProbability(age, children), 0.);
+                }
+            }
+            Assert.assertEquals(script.evaluate("probabilityForAGirl"), calculator.getProbabilityForGirl(), 0.);
+        }
+    }
+
+    @Test
+    public void testLeaveParentHh() {
+        for (String name : new String[]{"LeaveParentHhCalcMuc", "LeaveParentHhCalcMstm"}) {
+            LeaveParentHhJSCalculator calculator = new LeaveParentHhJSCalculator(read(name));
+            Script script = new Script(read(name));
+            for (PersonType type : PersonType.values()) {
+                Assert.assertEquals(name + " " + type,
+                        script.evaluate("calculateLeaveParentsProbability", type),
+                        calculator.calculateLeaveParentsProbability(type), 0.);
+            }
+        }
+    }
+
+    @Test
+    public void testLicense() {
+        LicenseJSCalculator calculator = new LicenseJSCalculator(read("DriverLicenseCalc"));
+        Script script = new Script(read("DriverLicenseCalc"));
+        for (PersonType type : PersonType.values()) {
+            Assert.assertEquals(type.toString(), script.evaluate("calculateCreateDriversLicenseProbability", type),
+                    calculator.calculateCreateDriversLicenseProbability(type), 0.);
+            Assert.assertEquals(type.toString(), script.evaluate("calculateChangeDriversLicenseProbability", type),
+                    calculator.calculateChangeDriversLicenseProbability(type), 0.);
+        }
+    }
+
+    @Test
+    public void testDivorce() {
+        for (String name : new String[]{"MarryDivorceCalcMuc", "MarryDivorceCalcMstm"}) {
+            MarryDivorceJSCalculator calculator = new MarryDivorceJSCalculator(read(name), 1.);
+            Script script = new Script(read(name));
+            for (PersonType type : PersonType.values()) {
+                Assert.assertEquals(name + " " + type,
+                        script.evaluate("calculateDivorceProbability", type.ordinal()),
+                        calculator.calculateDivorceProbability(type.ordinal()), 0.);
+            }
+            // ordinals outside of the table are passed to the script, which rejects them
+            for (int ordinal : new int[]{-1, PersonType.values().length}) {
+                try {
+                    calculator.calculateDivorceProbability(ordinal);
+                    Assert.fail(name + " accepted undefined person type " + ordinal);
+                } catch (RuntimeException expected) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package de.tum.bgu.msm.models.jobmography;
+
+import de.tum.bgu.msm.Implementation;
+import de.tum.bgu.msm.container.SiloDataContainer;
+import de.tum.bgu.msm.data.JobDataManager;
+import de.tum.bgu.msm.data.Zone;
+import de.tum.bgu.msm.data.job.Job;
+import de.tum.bgu.msm.data.job.JobType;
+import de.tum.bgu.msm.data.job.JobUtils;
+import de.tum.bgu.msm.data.person.*;
+import de.tum.bgu.msm.properties.Properties;
+import de.tum.bgu.msm.utils.SiloUtil;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class RemoveJobsDefinitionTest {
+
+    private static SiloDataContainer dataContainer;
+
+    @BeforeClass
+    public static void setupModel() {
+        SiloUtil.siloInitialization(Implementation.MARYLAND, "./test/scenarios/annapolis/javaFiles/siloMstm.properties");
+        dataContainer = SiloDataContainer.loadSiloDataContainer(Properties.get());
+        dataContainer.getHouseholdData().calculateInitialSettings();
+        dataContainer.getJobData().identifyVacantJobs();
+    }
+
+    @Test
+    public void testVacantJobsAreRemovedFirst() {
+        JobDataManager jobData = dataContainer.getJobData();
+        Zone zone = dataContainer.getGeoData().getZones().values().iterator().next();
+        String jobType = JobType.getJobTypes()[0];
+        int jobsInZone = jobData.getNumberOfJobsByZoneAndType(zone.getZoneId(), jobType);
+
+        int[] vacantJobs = new int[3];
+        for (int i = 0; i < vacantJobs.length; i++) {
+            vacantJobs[i] = addJob(zone, jobType, -1);
+        }
+        Person worker1 = addWorker();
+        Person worker2 = addWorker();
+        int[] occupiedJobs = {addJob(zone, jobType, worker1.getId()), addJob(zone, jobType, worker2.getId())};
+        Assert.assertEquals(jobsInZone + 5, jobData.getNumberOfJobsByZoneAndType(zone.getZoneId(), jobType));
+
+        new RemoveJobsDefinition(zone, 2, jobType, vacantJobs, occupiedJobs, dataContainer).call();
+        // only as many vacant jobs as requested are removed, nobody is fired
+        Assert.assertNull(jobData.getJobFromId(vacantJobs[0]));
+        Assert.assertNull(jobData.getJobFromId(vacantJobs[1]));
+        Assert.assertNotNull(jobData.getJobFromId(vacantJobs[2]));
+        Assert.assertEquals(Occupation.EMPLOYED, worker1.getOccupation());
+        Assert.assertEquals(Occupation.EMPLOYED, worker2.getOccupation());
+        Assert.assertEquals(jobsInZone + 3, jobData.getNumberOfJobsByZoneAndType(zone.getZoneId(), jobType));
+
+        int[] remainingVacantJobs = {vacantJobs[2]};
+        new RemoveJobsDefinition(zone, 2, jobType, remainingVacantJobs, occupiedJobs, dataContainer).call();
+        // the last vacant job is removed, then one occupied job whose worker is fired
+        Assert.assertNull(jobData.getJobFromId(vacantJobs[2]));
+        Assert.assertNull(jobData.getJobFromId(occupiedJobs[0]));
+        Assert.assertNotNull(jobData.getJobFromId(occupiedJobs[1]));
+        Assert.assertEquals(-1, worker1.getJobId());
+        Assert.assertEquals(Occupation.UNEMPLOYED, worker1.getOccupation());
+        Assert.assertEquals(600, worker1.getIncome());
+        Assert.assertEquals(occupiedJobs[1], worker2.getJobId());
+        Assert.assertEquals(Occupation.EMPLOYED, worker2.getOccupation());
+        Assert.assertEquals(jobsInZone + 1, jobData.getNumberOfJobsByZoneAndType(zone.getZoneId(), jobType));
+    }
+
+    private static int addJob(Zone zone, String jobType, int workerId) {
+        int id = dataContainer.getJobData().getNextJobId();
+        Job job = JobUtils.getFactory().createJob(id, zone.getZoneId(), null, workerId, jobType);
+        dataContainer.getJobData().addJob(job);
+        if (workerId > 0) {
+            dataContainer.getHouseholdData().getPersonFromId(workerId).setWorkplace(id);
+        }
+        return id;
+    }
+
+    private static Person addWorker() {
+        int id = dataContainer.getHouseholdData().getNextPersonId();
+        Person person = PersonUtils.getFactory().createPerson(id, 40, Gender.FEMALE, Race.other,
+                Occupation.EMPLOYED, PersonRole.SINGLE, -1, 1000);
+        dataContainer.getHouseholdData().addPerson(person);
+        return person;
+    }
+}
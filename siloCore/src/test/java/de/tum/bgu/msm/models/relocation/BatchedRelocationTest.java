@@ -0,0 +1,159 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.data.household.Household;
+import de.tum.bgu.msm.data.household.HouseholdUtil;
+import de.tum.bgu.msm.utils.SiloUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class BatchedRelocationTest {
+
+    private static final int HOUSEHOLDS = 200;
+    private static final int DWELLINGS = 300;
+    private static final int PARTITIONS = 8;
+
+    /**
+     * Households 1 and 2 only want dwelling 1, households 3 and 4 want dwellings 2 and 3. All other households
+     * draw a few candidates among the remaining dwellings. Households that search again get the vacant dwelling
+     * with the highest id, so they never take dwellings 1 to 3.
+     */
+    private static final class SyntheticMarket implements BatchedRelocation.DwellingSearch {
+
+        private final List<Household> households = new ArrayList<>();
+        private final boolean[] occupied = new boolean[DWELLINGS + 1];
+        // by household id, 0 if the household did not move
+        private final int[] dwellings = new int[HOUSEHOLDS + 1];
+        private final Set<Integer> searchedAgain = new HashSet<>();
+        private boolean parallelSearch;
+
+        private SyntheticMarket() {
+            for (int id = 1; id <= HOUSEHOLDS; id++) {
+                households.add(HouseholdUtil.getFactory().createHousehold(id, -1, 0));
+            }
+        }
+
+        @Override
+        public Collection<Household> getHouseholds() {
+            return households;
+        }
+
+        @Override
+        public boolean moveOrNot(Household household) {
+            return household.getId() <= 4 || SiloUtil.getRandomNumberAsDouble() < 0.9;
+        }
+
+        @Override
+        public DwellingCandidates findCandidates(Household household) {
+            Assert.assertTrue(parallelSearch);
+            if (household.getId() <= 2) {
+                return new DwellingCandidates(new int[]{1}, new double[]{1.});
+            } else if (household.getId() <= 4) {
+                return new DwellingCandidates(new int[]{2, 3}, new double[]{0.5, 0.5});
+            }
+            Random random = SiloUtil.getRandomObject();
+            int[] ids = new int[3];
+            double[] probabilities = new double[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = 4 + random.nextInt(DWELLINGS - 3);
+                probabilities[i] = random.nextDouble();
+            }
+            return new DwellingCandidates(ids, probabilities);
+        }
+
+        @Override
+        public int searchAgain(Household household) {
+            Assert.assertFalse(parallelSearch);
+            searchedAgain.add(household.getId());
+            for (int id = DWELLINGS; id > 0; id--) {
+                if (!occupied[id]) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean isOccupied(int dwellingId) {
+            return occupied[dwellingId];
+        }
+
+        @Override
+        public boolean relocate(Household household, int dwellingId) {
+            Assert.assertFalse(parallelSearch);
+            if (dwellingId <= 0) {
+                return false;
+            }
+            Assert.assertFalse("Dwelling " + dwellingId + " was assigned twice", occupied[dwellingId]);
+            occupied[dwellingId] = true;
+            dwellings[household.getId()] = dwellingId;
+            return true;
+        }
+
+        @Override
+        public void prepareParallelSearch() {
+            parallelSearch = true;
+        }
+
+        @Override
+        public void finishParallelSearch() {
+            parallelSearch = false;
+        }
+    }
+
+    @Test
+    public void testHouseholdsCompetingForTheSameDwelling() {
+        SiloUtil.initializeRandomNumber(42);
+        SyntheticMarket market = new SyntheticMarket();
+        int moved = new BatchedRelocation(market, PARTITIONS, 0).relocateHouseholds();
+
+        Set<Integer> assigned = new HashSet<>();
+        for (int id = 1; id <= HOUSEHOLDS; id++) {
+            if (market.dwellings[id] > 0) {
+                Assert.assertTrue(assigned.add(market.dwellings[id]));
+            }
+        }
+        Assert.assertEquals(moved, assigned.size());
+        Assert.assertTrue(moved > HOUSEHOLDS / 2);
+
+        // one of households 1 and 2 gets dwelling 1, the other one has no candidate left and searches again
+        Assert.assertTrue(market.dwellings[1] == 1 ^ market.dwellings[2] == 1);
+        int loser = market.dwellings[1] == 1 ? 2 : 1;
+        Assert.assertTrue(market.searchedAgain.contains(loser));
+        Assert.assertTrue(market.dwellings[loser] > 3);
+
+        // one of households 3 and 4 gets the dwelling drawn first, the other one draws the remaining candidate
+        Assert.assertEquals(5, market.dwellings[3] + market.dwellings[4]);
+        Assert.assertFalse(market.searchedAgain.contains(3));
+        Assert.assertFalse(market.searchedAgain.contains(4));
+    }
+
+    @Test
+    public void testSameResultForAnyNumberOfThreads() {
+        int[] oneThread = relocate(42, 1);
+        Assert.assertArrayEquals(oneThread, relocate(42, 3));
+        Assert.assertArrayEquals(oneThread, relocate(42, PARTITIONS));
+        // one thread per batch, as used by the model runs
+        Assert.assertArrayEquals(oneThread, relocate(42, 0));
+
+        int[] otherSeed = relocate(43, 1);
+        boolean differs = false;
+        for (int i = 0; i < oneThread.length; i++) {
+            differs |= oneThread[i] != otherSeed[i];
+        }
+        Assert.assertTrue(differs);
+    }
+
+    private static int[] relocate(int seed, int threads) {
+        SiloUtil.initializeRandomNumber(seed);
+        SyntheticMarket market = new SyntheticMarket();
+        new BatchedRelocation(market, PARTITIONS, threads).relocateHouseholds();
+        return market.dwellings;
+    }
+}
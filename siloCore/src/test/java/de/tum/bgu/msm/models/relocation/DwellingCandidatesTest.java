@@ -0,0 +1,27 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.utils.SiloUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class DwellingCandidatesTest {
+
+    @Test
+    public void testExcludedCandidatesAreNotSelected() {
+        SiloUtil.setThreadLocalRandom(new Random(42));
+        try {
+            DwellingCandidates candidates = new DwellingCandidates(new int[]{4, 7, 9}, new double[]{0.5, 0., 0.5});
+            Assert.assertEquals(1, candidates.exclude(id -> id == 4 || id == 7));
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(9, candidates.select());
+            }
+            Assert.assertEquals(1, candidates.exclude(id -> id == 9));
+            Assert.assertEquals(-1, candidates.select());
+            Assert.assertEquals(-1, DwellingCandidates.none().select());
+        } finally {
+            SiloUtil.clearThreadLocalRandom();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package de.tum.bgu.msm.models.relocation;
+
+import de.tum.bgu.msm.data.dwelling.DefaultDwellingTypeImpl;
+import de.tum.bgu.msm.data.dwelling.Dwelling;
+import de.tum.bgu.msm.data.dwelling.DwellingUtils;
+import de.tum.bgu.msm.data.household.HouseholdType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.function.ToDoubleBiFunction;
+
+public class DwellingUtilitiesTest {
+
+    private final ToDoubleBiFunction<HouseholdType, Dwelling> calculator =
+            (type, dd) -> type.ordinal() + dd.getPrice() / 1000. + dd.getQuality() / 10.;
+
+    @Test
+    public void testUtilitiesAreStoredByDwellingAndType() {
+        DwellingUtilities utilities = new DwellingUtilities();
+        Dwelling dwelling = DwellingUtils.getFactory().createDwelling(5, 1, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        Dwelling other = DwellingUtils.getFactory().createDwelling(1000, 2, null, -1, DefaultDwellingTypeImpl.SFD, 2, 1, 250, 0, 2000);
+        Assert.assertTrue(Double.isNaN(utilities.get(5, HouseholdType.SIZE_1_INC_LOW)));
+
+        Assert.assertEquals(0.8, utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator), 1e-6);
+        Assert.assertEquals(9.8, utilities.getOrCalculate(dwelling, HouseholdType.SIZE_2_INC_HIGH, calculator), 1e-6);
+        Assert.assertEquals(0.35, utilities.getOrCalculate(other, HouseholdType.SIZE_1_INC_LOW, calculator), 1e-6);
+
+        Assert.assertEquals(0.8, utilities.get(5, HouseholdType.SIZE_1_INC_LOW), 1e-6);
+        Assert.assertTrue(Double.isNaN(utilities.get(5, HouseholdType.SIZE_1_INC_MEDIUM)));
+        Assert.assertTrue(Double.isNaN(utilities.get(999, HouseholdType.SIZE_1_INC_LOW)));
+        Assert.assertEquals(0, utilities.getHits());
+        Assert.assertEquals(3, utilities.getRecalculations());
+
+        Assert.assertEquals(0.8, utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator), 1e-6);
+        Assert.assertEquals(1, utilities.getHits());
+        Assert.assertEquals(3, utilities.getRecalculations());
+    }
+
+    @Test
+    public void testChangedDwellingsAreRecalculated() {
+        DwellingUtilities utilities = new DwellingUtilities();
+        Dwelling dwelling = DwellingUtils.getFactory().createDwelling(3, 1, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator);
+        utilities.getOrCalculate(dwelling, HouseholdType.SIZE_2_INC_LOW, calculator);
+
+        dwelling.setPrice(1000);
+        Assert.assertEquals(1.3, utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator), 1e-6);
+        // all household types of a changed dwelling are invalidated
+        Assert.assertTrue(Double.isNaN(utilities.get(3, HouseholdType.SIZE_2_INC_LOW)));
+
+        dwelling.setQuality(4);
+        Assert.assertEquals(1.4, utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator), 1e-6);
+        Assert.assertEquals(0, utilities.getHits());
+        Assert.assertEquals(4, utilities.getRecalculations());
+    }
+
+    @Test
+    public void testChangedZonesAreRecalculated() {
+        DwellingUtilities utilities = new DwellingUtilities();
+        Dwelling inZone1 = DwellingUtils.getFactory().createDwelling(1, 1, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        Dwelling inZone2 = DwellingUtils.getFactory().createDwelling(2, 2, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        utilities.getOrCalculate(inZone1, HouseholdType.SIZE_1_INC_LOW, calculator);
+        utilities.getOrCalculate(inZone2, HouseholdType.SIZE_1_INC_LOW, calculator);
+
+        utilities.markZoneChanged(2);
+        utilities.getOrCalculate(inZone1, HouseholdType.SIZE_1_INC_LOW, calculator);
+        utilities.getOrCalculate(inZone2, HouseholdType.SIZE_1_INC_LOW, calculator);
+        Assert.assertEquals(1, utilities.getHits());
+        Assert.assertEquals(3, utilities.getRecalculations());
+    }
+
+    @Test
+    public void testRemove() {
+        DwellingUtilities utilities = new DwellingUtilities();
+        utilities.ensureCapacity(10);
+        Dwelling dwelling = DwellingUtils.getFactory().createDwelling(3, 1, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        Dwelling other = DwellingUtils.getFactory().createDwelling(4, 1, null, -1, DefaultDwellingTypeImpl.SFD, 2, 3, 500, 0, 2000);
+        utilities.getOrCalculate(dwelling, HouseholdType.SIZE_1_INC_LOW, calculator);
+        utilities.getOrCalculate(other, HouseholdType.SIZE_1_INC_LOW, calculator);
+        utilities.remove(3);
+        utilities.remove(100);
+
+        Assert.assertTrue(Double.isNaN(utilities.get(3, HouseholdType.SIZE_1_INC_LOW)));
+        Assert.assertEquals(0.8, utilities.get(4, HouseholdType.SIZE_1_INC_LOW), 1e-6);
+    }
+}
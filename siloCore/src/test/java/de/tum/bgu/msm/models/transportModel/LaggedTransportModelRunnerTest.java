@@ -0,0 +1,104 @@
+package de.tum.bgu.msm.models.transportModel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+public class LaggedTransportModelRunnerTest {
+
+    private final class StubTransportModel implements TransportModelI {
+
+        private final List<Integer> appliedYears = new ArrayList<>();
+        private CountDownLatch runFinished;
+        private boolean failing;
+
+        @Override
+        public void runTransportModel(int year) {
+            throw new UnsupportedOperationException("Only lagged runs are expected.");
+        }
+
+        @Override
+        public Supplier<Runnable> prepareTransportModel(int year) {
+            final CountDownLatch finished = new CountDownLatch(1);
+            runFinished = finished;
+            final boolean fail = failing;
+            return () -> {
+                try {
+                    if (fail) {
+                        throw new IllegalStateException("Transport model did not converge.");
+                    }
+                    return () -> appliedYears.add(year);
+                } finally {
+                    finished.countDown();
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testUpdateIsAppliedAtNextCall() throws InterruptedException {
+        StubTransportModel transportModel = new StubTransportModel();
+        LaggedTransportModelRunner runner = new LaggedTransportModelRunner(transportModel);
+        try {
+            Assert.assertFalse(runner.applyPendingRun());
+            runner.startRun(2011);
+            transportModel.runFinished.await();
+            // a finished run must not change travel times before it is applied
+            Assert.assertTrue(transportModel.appliedYears.isEmpty());
+
+            Assert.assertTrue(runner.applyPendingRun());
+            Assert.assertEquals(Collections.singletonList(2011), transportModel.appliedYears);
+            Assert.assertFalse(runner.applyPendingRun());
+            Assert.assertEquals(1, transportModel.appliedYears.size());
+        } finally {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    public void testStartRunWhilePending() {
+        StubTransportModel transportModel = new StubTransportModel();
+        LaggedTransportModelRunner runner = new LaggedTransportModelRunner(transportModel);
+        try {
+            runner.startRun(2011);
+            try {
+                runner.startRun(2012);
+                Assert.fail("Started a run while another one was pending.");
+            } catch (IllegalStateException expected) {
+            }
+            Assert.assertTrue(runner.applyPendingRun());
+            runner.startRun(2012);
+            Assert.assertTrue(runner.applyPendingRun());
+            Assert.assertEquals(2, transportModel.appliedYears.size());
+            Assert.assertEquals(Integer.valueOf(2012), transportModel.appliedYears.get(1));
+        } finally {
+            runner.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedRunIsReported() {
+        StubTransportModel transportModel = new StubTransportModel();
+        transportModel.failing = true;
+        LaggedTransportModelRunner runner = new LaggedTransportModelRunner(transportModel);
+        try {
+            runner.startRun(2011);
+            try {
+                runner.applyPendingRun();
+                Assert.fail("Failed run was not reported.");
+            } catch (RuntimeException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            Assert.assertTrue(transportModel.appliedYears.isEmpty());
+            // the failed run is not pending anymore
+            Assert.assertFalse(runner.applyPendingRun());
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
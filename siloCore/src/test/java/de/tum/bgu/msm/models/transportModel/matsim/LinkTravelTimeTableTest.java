@@ -0,0 +1,125 @@
+package de.tum.bgu.msm.models.transportModel.matsim;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+
+public class LinkTravelTimeTableTest {
+
+    private static final int BIN_SIZE_S = 900;
+    private static final int MAX_TIME_S = 3600;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Network network;
+    private Link ab;
+    private Link bc;
+    private String eventsFile;
+
+    @Before
+    public void setup() throws IOException {
+        network = NetworkUtils.createNetwork();
+        Node a = NetworkUtils.createAndAddNode(network, Id.createNodeId("a"), new Coord(0, 0));
+        Node b = NetworkUtils.createAndAddNode(network, Id.createNodeId("b"), new Coord(1000, 0));
+        Node c = NetworkUtils.createAndAddNode(network, Id.createNodeId("c"), new Coord(1500, 0));
+        // free speed travel times of 100 and 50 seconds
+        ab = NetworkUtils.createAndAddLink(network, Id.createLinkId("ab"), a, b, 1000., 10., 1000., 1.);
+        bc = NetworkUtils.createAndAddLink(network, Id.createLinkId("bc"), b, c, 500., 10., 1000., 1.);
+
+        File events = folder.newFile("events.xml");
+        try (FileWriter writer = new FileWriter(events)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<events version=\"1.0\">\n"
+                    // two cars take 120 and 180 seconds on bc in the first bin
+                    + event(0, "vehicle enters traffic", "ab", "v1", " networkMode=\"car\"")
+                    + event(10, "left link", "ab", "v1", "")
+                    + event(10, "entered link", "bc", "v1", "")
+                    + event(100, "vehicle enters traffic", "ab", "v2", " networkMode=\"car\"")
+                    + event(100, "left link", "ab", "v2", "")
+                    + event(100, "entered link", "bc", "v2", "")
+                    + event(130, "left link", "bc", "v1", "")
+                    // a bike takes 1000 seconds on bc in the first bin
+                    + event(150, "vehicle enters traffic", "ab", "v3", " networkMode=\"bike\"")
+                    + event(200, "left link", "ab", "v3", "")
+                    + event(200, "entered link", "bc", "v3", "")
+                    + event(280, "left link", "bc", "v2", "")
+                    // a car that leaves traffic on bc is not counted
+                    + event(290, "vehicle enters traffic", "ab", "v5", " networkMode=\"car\"")
+                    + event(300, "left link", "ab", "v5", "")
+                    + event(300, "entered link", "bc", "v5", "")
+                    + event(320, "vehicle leaves traffic", "bc", "v5", " networkMode=\"car\"")
+                    // a car takes 1500 seconds on bc in the second bin
+                    + event(990, "vehicle enters traffic", "ab", "v4", " networkMode=\"car\"")
+                    + event(1000, "left link", "ab", "v4", "")
+                    + event(1000, "entered link", "bc", "v4", "")
+                    + event(1200, "left link", "bc", "v3", "")
+                    + event(2500, "left link", "bc", "v4", "")
+                    + "</events>\n");
+        }
+        eventsFile = events.getPath();
+    }
+
+    @Test
+    public void testAveragesOfAnalyzedModes() {
+        LinkTravelTimeTable table = LinkTravelTimeTable.fromEvents(network, eventsFile, BIN_SIZE_S, MAX_TIME_S,
+                Collections.singleton("car"));
+        Assert.assertEquals(150., table.getLinkTravelTime(bc, 0, null, null), 1e-4);
+        Assert.assertEquals(150., table.getLinkTravelTime(bc, 899, null, null), 1e-4);
+        Assert.assertEquals(1500., table.getLinkTravelTime(bc, 900, null, null), 1e-4);
+
+        LinkTravelTimeTable allModes = LinkTravelTimeTable.fromEvents(network, eventsFile, BIN_SIZE_S, MAX_TIME_S, null);
+        Assert.assertEquals((120. + 180. + 1000.) / 3, allModes.getLinkTravelTime(bc, 0, null, null), 1e-4);
+    }
+
+    @Test
+    public void testFreeSpeedAndConsolidation() {
+        LinkTravelTimeTable table = LinkTravelTimeTable.fromEvents(network, eventsFile, BIN_SIZE_S, MAX_TIME_S,
+                Collections.singleton("car"));
+        // vehicles only entered traffic on ab, so it was never traversed
+        Assert.assertEquals(100., table.getLinkTravelTime(ab, 0, null, null), 0.);
+        Assert.assertEquals(100., table.getLinkTravelTime(ab, 2000, null, null), 0.);
+        // a vehicle entering bc in the third bin cannot arrive earlier than the vehicle of the second bin
+        Assert.assertEquals(1500. - BIN_SIZE_S, table.getLinkTravelTime(bc, 2000, null, null), 1e-4);
+        Assert.assertEquals(50., table.getLinkTravelTime(bc, 3000, null, null), 0.);
+        // times after the maximum time are in the last bin
+        Assert.assertEquals(50., table.getLinkTravelTime(bc, 20000, null, null), 0.);
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        LinkTravelTimeTable table = LinkTravelTimeTable.fromEvents(network, eventsFile, BIN_SIZE_S, MAX_TIME_S,
+                Collections.singleton("car"));
+        Path file = folder.getRoot().toPath().resolve("tables").resolve("events.linktt");
+        Assert.assertNull(LinkTravelTimeTable.read(network, file, BIN_SIZE_S, MAX_TIME_S));
+        table.write(file);
+
+        LinkTravelTimeTable read = LinkTravelTimeTable.read(network, file, BIN_SIZE_S, MAX_TIME_S);
+        Assert.assertNotNull(read);
+        for (Link link : network.getLinks().values()) {
+            for (int time = 0; time <= MAX_TIME_S; time += BIN_SIZE_S / 3) {
+                Assert.assertEquals(table.getLinkTravelTime(link, time, null, null),
+                        read.getLinkTravelTime(link, time, null, null), 0.);
+            }
+        }
+        Assert.assertNull(LinkTravelTimeTable.read(network, file, BIN_SIZE_S / 2, MAX_TIME_S));
+    }
+
+    private static String event(double time, String type, String link, String vehicle, String attributes) {
+        return "\t<event time=\"" + time + "\" type=\"" + type + "\" link=\"" + link + "\" vehicle=\"" + vehicle + "\""
+                + attributes + " />\n";
+    }
+}
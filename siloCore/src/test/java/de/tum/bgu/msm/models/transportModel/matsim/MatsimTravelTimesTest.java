@@ -0,0 +1,39 @@
+package de.tum.bgu.msm.models.transportModel.matsim;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatsimTravelTimesTest {
+
+    private static final double HOUR_s = 60 * 60;
+
+    @Test
+    public void testSnapToNearestPeriod() {
+        double[] periods_s = {3 * HOUR_s, 8 * HOUR_s, 12 * HOUR_s, 17 * HOUR_s};
+        Assert.assertEquals(8 * HOUR_s, MatsimTravelTimes.snapToPeriod(8 * HOUR_s, periods_s), 0.);
+        Assert.assertEquals(8 * HOUR_s, MatsimTravelTimes.snapToPeriod(8.5 * HOUR_s, periods_s), 0.);
+        Assert.assertEquals(12 * HOUR_s, MatsimTravelTimes.snapToPeriod(10.5 * HOUR_s, periods_s), 0.);
+        Assert.assertEquals(17 * HOUR_s, MatsimTravelTimes.snapToPeriod(19 * HOUR_s, periods_s), 0.);
+    }
+
+    @Test
+    public void testSnapAcrossMidnight() {
+        double[] periods_s = {3 * HOUR_s, 8 * HOUR_s, 12 * HOUR_s, 17 * HOUR_s};
+        // 23:30 is closer to 3:00 of the next day than to 17:00
+        Assert.assertEquals(3 * HOUR_s, MatsimTravelTimes.snapToPeriod(23.5 * HOUR_s, periods_s), 0.);
+        Assert.assertEquals(3 * HOUR_s, MatsimTravelTimes.snapToPeriod(0.5 * HOUR_s, periods_s), 0.);
+        // MATSim times continue after midnight
+        Assert.assertEquals(3 * HOUR_s, MatsimTravelTimes.snapToPeriod(26 * HOUR_s, periods_s), 0.);
+        Assert.assertEquals(8 * HOUR_s, MatsimTravelTimes.snapToPeriod(32 * HOUR_s, periods_s), 0.);
+
+        double[] nightPeriods_s = {0.5 * HOUR_s, 12 * HOUR_s};
+        Assert.assertEquals(0.5 * HOUR_s, MatsimTravelTimes.snapToPeriod(23 * HOUR_s, nightPeriods_s), 0.);
+    }
+
+    @Test
+    public void testSnapToSinglePeriod() {
+        double[] periods_s = {8 * HOUR_s};
+        Assert.assertEquals(8 * HOUR_s, MatsimTravelTimes.snapToPeriod(0, periods_s), 0.);
+        Assert.assertEquals(8 * HOUR_s, MatsimTravelTimes.snapToPeriod(20 * HOUR_s, periods_s), 0.);
+    }
+}
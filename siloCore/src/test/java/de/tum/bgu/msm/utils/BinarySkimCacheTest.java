@@ -0,0 +1,73 @@
+package de.tum.bgu.msm.utils;
+
+import cern.colt.matrix.tdouble.DoubleFactory2D;
+import cern.colt.matrix.tdouble.DoubleMatrix2D;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+public class BinarySkimCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testStoreAndLoad() throws IOException {
+        BinarySkimCache cache = new BinarySkimCache(folder.newFolder("skims").getPath());
+        String fingerprint = BinarySkimCache.fingerprint("network", 28800.);
+        Assert.assertNull(cache.load(fingerprint));
+
+        DoubleMatrix2D skim = DoubleFactory2D.dense.make(3, 4);
+        skim.setQuick(1, 2, 12.5);
+        skim.setQuick(2, 3, 3.25);
+        cache.store(fingerprint, skim);
+
+        DoubleMatrix2D loaded = cache.load(fingerprint);
+        Assert.assertEquals(3, loaded.rows());
+        Assert.assertEquals(4, loaded.columns());
+        Assert.assertEquals(12.5, loaded.getQuick(1, 2), 0.);
+        Assert.assertEquals(3.25, loaded.getQuick(2, 3), 0.);
+        Assert.assertEquals(0., loaded.getQuick(0, 0), 0.);
+    }
+
+    @Test
+    public void testStoredMatrixEqualsLoadedMatrix() throws IOException {
+        BinarySkimCache cache = new BinarySkimCache(folder.newFolder("skims").getPath());
+        String fingerprint = BinarySkimCache.fingerprint("network", 28800.);
+
+        DoubleMatrix2D skim = DoubleFactory2D.dense.make(2, 2);
+        skim.setQuick(0, 1, 17.123456789);
+        skim.setQuick(1, 0, 1. / 3.);
+        cache.store(fingerprint, skim);
+        Assert.assertEquals((float) 17.123456789, skim.getQuick(0, 1), 0.);
+
+        DoubleMatrix2D loaded = cache.load(fingerprint);
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 2; j++) {
+                Assert.assertEquals(skim.getQuick(i, j), loaded.getQuick(i, j), 0.);
+            }
+        }
+    }
+
+    @Test
+    public void testFingerprintDependsOnFileContent() throws IOException {
+        File events = folder.newFile("events.xml");
+        write(events, "a");
+        String first = BinarySkimCache.fingerprint(events, 28800.);
+        Assert.assertEquals(first, BinarySkimCache.fingerprint(events, 28800.));
+        Assert.assertNotEquals(first, BinarySkimCache.fingerprint(events, 28801.));
+        write(events, "b");
+        Assert.assertNotEquals(first, BinarySkimCache.fingerprint(events, 28800.));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(content);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package de.tum.bgu.msm.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CalculatorPoolTest {
+
+    private final AtomicInteger createdCalculators = new AtomicInteger();
+
+    private final class TestCalculator {
+
+        private final double value;
+
+        private TestCalculator(Reader reader) {
+            createdCalculators.incrementAndGet();
+            try {
+                value = Double.parseDouble(new BufferedReader(reader).readLine());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Test
+    public void testCalculatorsAreReused() {
+        CalculatorPool<TestCalculator> pool = new CalculatorPool<>(new StringReader("2.5"), TestCalculator::new);
+        for (int i = 0; i < 10; i++) {
+            final int factor = i;
+            Assert.assertEquals(2.5 * factor, pool.calculate(calculator -> calculator.value * factor), 0.);
+        }
+        Assert.assertEquals(1, createdCalculators.get());
+    }
+
+    @Test
+    public void testCalculatorsAreNotShared() throws InterruptedException {
+        CalculatorPool<TestCalculator> pool = new CalculatorPool<>(new StringReader("1"), TestCalculator::new);
+        final int threads = 4;
+        final CountDownLatch allBorrowed = new CountDownLatch(threads);
+        final List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> pool.calculate(calculator -> {
+                // every thread holds its calculator until all threads hold one
+                allBorrowed.countDown();
+                try {
+                    allBorrowed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return calculator.value;
+            }));
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertEquals(threads, createdCalculators.get());
+
+        // later runs on new threads reuse the idle calculators
+        Thread worker = new Thread(() -> pool.calculate(calculator -> calculator.value));
+        worker.start();
+        worker.join();
+        Assert.assertEquals(threads, createdCalculators.get());
+    }
+}
@@ -0,0 +1,51 @@
+package de.tum.bgu.msm.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public class DenseIdMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        DenseIdMap<String> map = new DenseIdMap<>(2);
+        map.put(1, "a");
+        map.put(5000, "b");
+        Assert.assertEquals(2, map.size());
+        Assert.assertEquals("a", map.get(1));
+        Assert.assertEquals("b", map.get(Integer.valueOf(5000)));
+        Assert.assertNull(map.get(2));
+        Assert.assertNull(map.get(-1));
+        Assert.assertNull(map.get(100000));
+
+        Assert.assertEquals("a", map.put(1, "c"));
+        Assert.assertEquals(2, map.size());
+
+        Assert.assertEquals("c", map.remove(1));
+        Assert.assertNull(map.remove(1));
+        Assert.assertFalse(map.containsKey(1));
+        Assert.assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testIterationInIdOrderWithRemoval() {
+        DenseIdMap<Integer> map = new DenseIdMap<>();
+        for (int id : new int[]{7, 3, 11, 5}) {
+            map.put(id, Integer.valueOf(id * 10));
+        }
+        Assert.assertEquals(Arrays.asList(3, 5, 7, 11), new ArrayList<>(map.keySet()));
+        Assert.assertEquals(Arrays.asList(30, 50, 70, 110), new ArrayList<>(map.values()));
+
+        Iterator<Integer> iterator = map.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == 50) {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(Arrays.asList(3, 7, 11), new ArrayList<>(map.keySet()));
+    }
+}
@@ -0,0 +1,129 @@
+package de.tum.bgu.msm.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        // values below 128 have a bucket each
+        for (int value = 0; value < 128; value++) {
+            Assert.assertEquals(value, LatencyHistogram.indexOf(value));
+            Assert.assertEquals(value, LatencyHistogram.valueOf(value));
+        }
+        // above, buckets double in width with every power of two
+        Assert.assertEquals(128, LatencyHistogram.indexOf(128));
+        Assert.assertEquals(128, LatencyHistogram.indexOf(129));
+        Assert.assertEquals(129, LatencyHistogram.indexOf(130));
+        Assert.assertEquals(191, LatencyHistogram.indexOf(255));
+        Assert.assertEquals(192, LatencyHistogram.indexOf(256));
+        Assert.assertEquals(192, LatencyHistogram.indexOf(259));
+        Assert.assertEquals(193, LatencyHistogram.indexOf(260));
+        Assert.assertEquals(129, LatencyHistogram.valueOf(128));
+        Assert.assertEquals(258, LatencyHistogram.valueOf(192));
+    }
+
+    @Test
+    public void testRelativePrecision() {
+        int previous = LatencyHistogram.indexOf(127);
+        for (long value = 128; value < 10000000; value += value / 97 + 1) {
+            int index = LatencyHistogram.indexOf(value);
+            Assert.assertTrue(index >= previous);
+            previous = index;
+            // the mid value of a bucket is at most half a bucket width, i.e. 1/128 of the value, away
+            Assert.assertEquals(value, LatencyHistogram.valueOf(index), value / 128.);
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getTotal());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getPercentile(0.5));
+        Assert.assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    @Test
+    public void testSingleSample() {
+        for (long value : new long[]{0, 1, 127, 128, 1000, 123456789}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            Assert.assertEquals(1, histogram.getCount());
+            Assert.assertEquals(value, histogram.getTotal());
+            Assert.assertEquals(value, histogram.getMax());
+            // the only sample is the maximum, so every percentile is exact
+            for (double quantile : new double[]{0., 0.5, 0.99, 1.}) {
+                Assert.assertEquals(value, histogram.getPercentile(quantile));
+            }
+        }
+        LatencyHistogram negative = new LatencyHistogram();
+        negative.record(-5);
+        Assert.assertEquals(0, negative.getMax());
+        Assert.assertEquals(0, negative.getPercentile(0.5));
+    }
+
+    @Test
+    public void testPercentilesOfUniformDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        // nearest rank: the smallest value with at least the quantile of all samples at or below it
+        Assert.assertEquals(1, histogram.getPercentile(0.));
+        Assert.assertEquals(1, histogram.getPercentile(0.01));
+        Assert.assertEquals(50, histogram.getPercentile(0.5));
+        Assert.assertEquals(51, histogram.getPercentile(0.501));
+        Assert.assertEquals(99, histogram.getPercentile(0.99));
+        Assert.assertEquals(100, histogram.getPercentile(1.));
+        Assert.assertEquals(5050, histogram.getTotal());
+
+        LatencyHistogram large = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            large.record(i * 1000L);
+        }
+        Assert.assertEquals(500000, large.getPercentile(0.5), 500000 / 128.);
+        Assert.assertEquals(990000, large.getPercentile(0.99), 990000 / 128.);
+        Assert.assertEquals(1000000, large.getPercentile(1.));
+    }
+
+    @Test
+    public void testOverflow() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(Long.MAX_VALUE - 1);
+        histogram.record(1);
+        Assert.assertEquals(3, histogram.getCount());
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getMax());
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getTotal());
+        Assert.assertEquals(1, histogram.getPercentile(0.1));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentile(1.));
+        Assert.assertTrue(histogram.getPercentile(0.5) > Long.MAX_VALUE / 128 * 127);
+
+        LatencyHistogram other = new LatencyHistogram();
+        other.record(Long.MAX_VALUE / 2 + 1);
+        LatencyHistogram half = new LatencyHistogram();
+        half.record(Long.MAX_VALUE / 2 + 1);
+        half.merge(other);
+        Assert.assertEquals(Long.MAX_VALUE, half.getTotal());
+        Assert.assertEquals(2, half.getCount());
+    }
+
+    @Test
+    public void testMerge() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int value = 1; value <= 50; value++) {
+            first.record(value);
+            second.record(value + 50);
+        }
+        first.merge(second);
+        Assert.assertEquals(100, first.getCount());
+        Assert.assertEquals(5050, first.getTotal());
+        Assert.assertEquals(100, first.getMax());
+        Assert.assertEquals(50, first.getPercentile(0.5));
+        Assert.assertEquals(50, second.getCount());
+    }
+}
@@ -0,0 +1,61 @@
+package de.tum.bgu.msm.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyTrackerTest {
+
+    @Test
+    public void testRecordByIdentifier() {
+        LatencyTracker tracker = new LatencyTracker(true);
+        Assert.assertNull(tracker.getHistogram("BirthEvent"));
+        Assert.assertEquals(0, tracker.getSuccesses("BirthEvent"));
+
+        for (int i = 1; i <= 10; i++) {
+            tracker.record("BirthEvent", i * 100, i % 2 == 0);
+        }
+        tracker.record("DeathEvent", 5000, true);
+
+        LatencyHistogram births = tracker.getHistogram("BirthEvent");
+        Assert.assertEquals(10, births.getCount());
+        Assert.assertEquals(5500, births.getTotal());
+        Assert.assertEquals(1000, births.getMax());
+        Assert.assertEquals(5, tracker.getSuccesses("BirthEvent"));
+        Assert.assertEquals(1, tracker.getHistogram("DeathEvent").getCount());
+        Assert.assertEquals(1, tracker.getSuccesses("DeathEvent"));
+    }
+
+    @Test
+    public void testDisabledTrackerRecordsNothing() {
+        LatencyTracker tracker = new LatencyTracker(false);
+        Assert.assertFalse(tracker.isEnabled());
+        tracker.record("BirthEvent", 100, true);
+        Assert.assertNull(tracker.getHistogram("BirthEvent"));
+        Assert.assertEquals(0, tracker.getSuccesses("BirthEvent"));
+        // nothing is written either, so no output file is needed
+        tracker.writeYear(2011);
+    }
+
+    @Test
+    public void testMergeOfParallelWorkers() {
+        LatencyTracker tracker = new LatencyTracker(true);
+        tracker.record("BirthEvent", 100, true);
+
+        LatencyTracker worker = new LatencyTracker(true);
+        worker.record("BirthEvent", 300, false);
+        worker.record("BirthEvent", 200, true);
+        worker.record("MarriageEvent", 1000, true);
+        tracker.merge(worker);
+
+        LatencyHistogram births = tracker.getHistogram("BirthEvent");
+        Assert.assertEquals(3, births.getCount());
+        Assert.assertEquals(600, births.getTotal());
+        Assert.assertEquals(300, births.getMax());
+        Assert.assertEquals(200, births.getPercentile(0.5), 200 / 128.);
+        Assert.assertEquals(2, tracker.getSuccesses("BirthEvent"));
+        Assert.assertEquals(1, tracker.getHistogram("MarriageEvent").getCount());
+        Assert.assertEquals(1, tracker.getSuccesses("MarriageEvent"));
+        // the worker keeps its own records
+        Assert.assertEquals(2, worker.getHistogram("BirthEvent").getCount());
+    }
+}
@@ -0,0 +1,53 @@
+package de.tum.bgu.msm.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LruCacheTest {
+
+    @Test
+    public void testEvictsLeastRecentlyUsedEntry() {
+        LruCache<Integer, String> cache = new LruCache<>("test", 2, 0, value -> 1);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        Assert.assertEquals("a", cache.get(1));
+        cache.put(3, "c");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals("a", cache.get(1));
+        Assert.assertEquals("c", cache.get(3));
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(3, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testByteBudget() {
+        LruCache<Integer, int[]> cache = new LruCache<>("test", 0, 100, value -> 4L * value.length);
+        cache.put(1, new int[10]);
+        cache.put(2, new int[10]);
+        Assert.assertEquals(80, cache.getBytes());
+        cache.put(3, new int[10]);
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(80, cache.getBytes());
+        cache.put(4, new int[100]);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(400, cache.getBytes());
+    }
+
+    @Test
+    public void testGetOrComputeComputesOnce() {
+        LruCache<Integer, Integer> cache = new LruCache<>("test", 0, 0, value -> 4);
+        int[] calls = new int[1];
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Integer.valueOf(49), cache.getOrCompute(7, key -> {
+                calls[0]++;
+                return key * key;
+            }));
+        }
+        Assert.assertEquals(1, calls[0]);
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getBytes());
+    }
+}
@@ -0,0 +1,77 @@
+package de.tum.bgu.msm.utils;
+
+import de.tum.bgu.msm.data.Location;
+import de.tum.bgu.msm.data.Region;
+import de.tum.bgu.msm.data.Zone;
+import de.tum.bgu.msm.data.geo.RegionImpl;
+import de.tum.bgu.msm.data.geo.ZoneImpl;
+import de.tum.bgu.msm.data.travelTimes.TravelTimes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class RegionalTravelTimesTest {
+
+    @Test
+    public void testMinimumOverZonesOfRegion() {
+        Region region1 = new RegionImpl(1);
+        Region region3 = new RegionImpl(3);
+        Zone zone1 = new ZoneImpl(1, 1, 1, region1);
+        Zone zone2 = new ZoneImpl(2, 1, 1, region1);
+        Zone zone5 = new ZoneImpl(5, 1, 1, region3);
+        region1.addZone(zone1);
+        region1.addZone(zone2);
+        region3.addZone(zone5);
+        List<Zone> zones = Arrays.asList(zone1, zone2, zone5);
+
+        RegionalTravelTimes travelTimes = RegionalTravelTimes.minimumOverZones(zones, Arrays.asList(region1, region3),
+                (origin, destination) -> origin == destination ? 1 : 10 * origin.getZoneId() + destination.getZoneId());
+
+        Assert.assertEquals(1, travelTimes.getTravelTime(1, 1), 1e-6);
+        Assert.assertEquals(15, travelTimes.getTravelTime(1, 3), 1e-6);
+        Assert.assertEquals(1, travelTimes.getTravelTime(2, 1), 1e-6);
+        Assert.assertEquals(51, travelTimes.getTravelTime(5, 1), 1e-6);
+        Assert.assertEquals(1, travelTimes.getTravelTime(5, 3), 1e-6);
+        Assert.assertTrue(Double.isNaN(travelTimes.getTravelTime(3, 1)));
+        Assert.assertTrue(Double.isNaN(travelTimes.getTravelTime(1, 2)));
+        Assert.assertTrue(Double.isNaN(travelTimes.getTravelTime(6, 1)));
+        Assert.assertTrue(Double.isNaN(travelTimes.getTravelTime(1, 4)));
+    }
+
+    @Test
+    public void testTravelTimesAreQueriedFromCallingThread() {
+        Region region = new RegionImpl(1);
+        List<Zone> zones = new ArrayList<>();
+        for (int id = 1; id <= 1000; id++) {
+            Zone zone = new ZoneImpl(id, 1, 1, region);
+            region.addZone(zone);
+            zones.add(zone);
+        }
+        final Thread caller = Thread.currentThread();
+        RegionalTravelTimes travelTimes = RegionalTravelTimes.of(new TravelTimes() {
+            @Override
+            public double getTravelTime(int origin, int destination, double timeOfDay_s, String mode) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public double getTravelTime(Location origin, Location destination, double timeOfDay_s, String mode) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public double getTravelTimeToRegion(Location origin, Region destination, double timeOfDay_s, String mode) {
+                // implementations are not required to be thread safe
+                Assert.assertSame(caller, Thread.currentThread());
+                return origin.getZoneId() + timeOfDay_s;
+            }
+        }, zones, Collections.singletonList(region), 0.5, "car");
+
+        Assert.assertEquals(1.5, travelTimes.getTravelTime(1, 1), 1e-6);
+        Assert.assertEquals(1000.5, travelTimes.getTravelTime(1000, 1), 1e-6);
+    }
+}